@@ -0,0 +1,165 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Axes of a tensor, e.g. {@code bcyx}, parsed once so that the index of an axis can be looked up in constant time.
+ * Instances are immutable and interned, {@link #of(String)} returns the same instance for equal axes strings.
+ * Axes are case sensitive. If an axis occurs more than once, its first index is used.
+ */
+public final class Axes {
+
+    private final static int maxInterned = 1024;
+    private final static ConcurrentHashMap<String, Axes> interned = new ConcurrentHashMap<>();
+
+    private final String axes;
+    // index of each ASCII axis character, -1 if absent
+    private final byte[] indices = new byte[128];
+    private final long mask;
+
+    private Axes(String axes) {
+        this.axes = axes;
+        Arrays.fill(indices, (byte) -1);
+        long mask = 0;
+        for (int i = axes.length() - 1; i >= 0; i--) {
+            char axis = axes.charAt(i);
+            if (axis >= indices.length) {
+                throw new IllegalArgumentException("Unsupported axis '" + axis + "' in " + axes);
+            }
+            indices[axis] = (byte) i;
+            mask |= bit(axis);
+        }
+        this.mask = mask;
+    }
+
+    /**
+     * @return the parsed axes or null if {@code axes} is null
+     * @throws IllegalArgumentException if the axes contain non-ASCII characters or more than 127 axes
+     */
+    public static Axes of(String axes) {
+        if (axes == null) return null;
+        Axes result = interned.get(axes);
+        if (result != null) return result;
+        if (axes.length() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many axes: " + axes);
+        }
+        result = new Axes(axes);
+        if (interned.size() >= maxInterned) return result;
+        Axes previous = interned.putIfAbsent(axes, result);
+        return previous != null ? previous : result;
+    }
+
+    /**
+     * @return the bit of the axis in {@link #getMask()}, 0 for characters which cannot be axes
+     */
+    public static long bit(char axis) {
+        return axis >= '@' && axis < 128 ? 1L << (axis - '@') : 0;
+    }
+
+    /**
+     * @return the number of axes
+     */
+    public int size() {
+        return axes.length();
+    }
+
+    public char get(int index) {
+        return axes.charAt(index);
+    }
+
+    /**
+     * @return the index of the axis or -1 if it is not part of these axes
+     */
+    public int indexOf(char axis) {
+        return axis < indices.length ? indices[axis] : -1;
+    }
+
+    public boolean contains(char axis) {
+        return indexOf(axis) >= 0;
+    }
+
+    /**
+     * @return the bits of all letter axes, see {@link #bit(char)}
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * @return true if all letter axes of {@code other} are part of these axes
+     */
+    public boolean containsAll(Axes other) {
+        return (other.mask & ~mask) == 0;
+    }
+
+    /**
+     * @return for each index of {@code target} the index of the same axis in these axes, -1 for axes missing here
+     */
+    public int[] permutationTo(Axes target) {
+        int[] permutation = new int[target.size()];
+        for (int i = 0; i < permutation.length; i++) {
+            permutation[i] = indexOf(target.get(i));
+        }
+        return permutation;
+    }
+
+    /**
+     * Reorders values given in the order of these axes, e.g. a shape, into the order of {@code target}.
+     * @param missing the value used for axes of {@code target} which are missing here
+     */
+    public int[] permute(int[] values, Axes target, int missing) {
+        if (values.length != size()) {
+            throw new IllegalArgumentException("Expected " + size() + " values for axes " + axes + ", got " + values.length);
+        }
+        int[] result = new int[target.size()];
+        for (int i = 0; i < result.length; i++) {
+            int index = indexOf(target.get(i));
+            result[i] = index >= 0 ? values[index] : missing;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Axes && axes.equals(((Axes) o).axes);
+    }
+
+    @Override
+    public int hashCode() {
+        return axes.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return axes;
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+
+/**
+ * Hashes the canonical form of specifications, used for deduplication, cache keys and change detection.
+ * <p>
+ * The canonical form is written by the io package, which provides its {@link CanonicalWriter} as a {@link ServiceLoader}
+ * service. The model classes can therefore cache their hash without depending on the io package.
+ */
+public final class ContentHash {
+
+    /**
+     * Writes the canonical form of a specification, specifications with the same content have the same canonical form.
+     */
+    public interface CanonicalWriter {
+        void write(ModelSpecification specification, Writer writer) throws IOException;
+    }
+
+    private static class DefaultWriterHolder {
+        private final static CanonicalWriter writer = loadWriter();
+    }
+
+    private ContentHash() {
+    }
+
+    /**
+     * @return the hex encoded SHA-256 hash of the canonical form written by the {@link CanonicalWriter} service
+     * @throws IllegalStateException if no {@link CanonicalWriter} service is available
+     */
+    public static String of(ModelSpecification specification) {
+        CanonicalWriter writer = DefaultWriterHolder.writer;
+        if (writer == null) {
+            throw new IllegalStateException("No " + CanonicalWriter.class.getName() + " service is available");
+        }
+        return of(specification, writer);
+    }
+
+    /**
+     * @return the hex encoded SHA-256 hash of the canonical form written by the given writer
+     */
+    public static String of(ModelSpecification specification, CanonicalWriter canonicalWriter) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+        };
+        try (Writer writer = new OutputStreamWriter(new DigestOutputStream(discard, digest), StandardCharsets.UTF_8)) {
+            canonicalWriter.write(specification, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        char[] digits = "0123456789abcdef".toCharArray();
+        byte[] bytes = digest.digest();
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = digits[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = digits[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+
+    private static CanonicalWriter loadWriter() {
+        Iterator<CanonicalWriter> writers = ServiceLoader.load(CanonicalWriter.class, ContentHash.class.getClassLoader()).iterator();
+        return writers.hasNext() ? writers.next() : null;
+    }
+}
@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification;
 
+import java.util.Objects;
+
 public class DefaultAuthorSpecification implements AuthorSpecification{
 
     private String name;
@@ -35,6 +37,8 @@ public class DefaultAuthorSpecification implements AuthorSpecification{
     private String orcId;
     private String email;
     private String githubUser;
+    // cached hash code, 0 if not computed yet
+    private int cachedHashCode;
 
 
     public DefaultAuthorSpecification() {
@@ -49,23 +53,26 @@ public class DefaultAuthorSpecification implements AuthorSpecification{
     @Override
     public void setName(String name) {
         this.name=name;
+        cachedHashCode = 0;
     }
 
     @Override
     public void setAffiliation(String affiliation) {
         this.affiliation = affiliation;
+        cachedHashCode = 0;
     }
 
     @Override
     public void setOrcId(String orcid) {
         this.orcId = orcid;
+        cachedHashCode = 0;
     }
 
     @Override
-    public void setEmail(String email) { this.email = email; }
+    public void setEmail(String email) { this.email = email; cachedHashCode = 0; }
 
     @Override
-    public void setGithubUser(String githubUser) { this.githubUser = githubUser; }
+    public void setGithubUser(String githubUser) { this.githubUser = githubUser; cachedHashCode = 0; }
 
     @Override
     public String getName() {
@@ -87,4 +94,26 @@ public class DefaultAuthorSpecification implements AuthorSpecification{
 
     @Override
     public String getGithubUser() { return githubUser; }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = Objects.hash(name, affiliation, orcId, email, githubUser);
+            cachedHashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DefaultAuthorSpecification that = (DefaultAuthorSpecification) o;
+        return Objects.equals(name, that.name) &&
+                Objects.equals(affiliation, that.affiliation) &&
+                Objects.equals(orcId, that.orcId) &&
+                Objects.equals(email, that.email) &&
+                Objects.equals(githubUser, that.githubUser);
+    }
 }
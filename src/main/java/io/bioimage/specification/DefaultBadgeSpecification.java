@@ -28,25 +28,32 @@
  */
 package io.bioimage.specification;
 
+import java.util.Objects;
+
 public class DefaultBadgeSpecification implements BadgeSpecification{
 
     String label;
     String icon;
     String url;
+    // cached hash code, 0 if not computed yet
+    private int cachedHashCode;
 
     @Override
     public void setLabel(String label) {
         this.label = label;
+        cachedHashCode = 0;
     }
 
     @Override
     public void setIcon(String icon) {
         this.icon = icon;
+        cachedHashCode = 0;
     }
 
     @Override
     public void setUrl(String url) {
         this.url = url;
+        cachedHashCode = 0;
     }
 
     @Override
@@ -63,4 +70,24 @@ public class DefaultBadgeSpecification implements BadgeSpecification{
     public String getUrl() {
         return url;
     }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = Objects.hash(label, icon, url);
+            cachedHashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DefaultBadgeSpecification that = (DefaultBadgeSpecification) o;
+        return Objects.equals(label, that.label) &&
+                Objects.equals(icon, that.icon) &&
+                Objects.equals(url, that.url);
+    }
 }
@@ -38,20 +38,25 @@ public class DefaultCitationSpecification implements CitationSpecification {
 	private String doiText;
 
 	private String url;
+	// cached hash code, 0 if not computed yet
+	private int cachedHashCode;
 
 	@Override
 	public void setCitationText(String citationText) {
 		this.citationText = citationText;
+		cachedHashCode = 0;
 	}
 
 	@Override
 	public void setDOIText(String doiText) {
 		this.doiText = doiText;
+		cachedHashCode = 0;
 	}
 
 	@Override
 	public void setUrl(String url) {
 		this.url = url;
+		cachedHashCode = 0;
 	}
 
 	@Override
@@ -71,7 +76,12 @@ public class DefaultCitationSpecification implements CitationSpecification {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(citationText, doiText, url);
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = Objects.hash(citationText, doiText, url);
+			cachedHashCode = result;
+		}
+		return result;
 	}
 
 	@Override
@@ -79,6 +89,6 @@ public class DefaultCitationSpecification implements CitationSpecification {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		DefaultCitationSpecification that = (DefaultCitationSpecification) o;
-		return citationText.equals(that.citationText) && Objects.equals(doiText, that.doiText) && Objects.equals(url, that.url);
+		return Objects.equals(citationText, that.citationText) && Objects.equals(doiText, that.doiText) && Objects.equals(url, that.url);
 	}
 }
@@ -28,23 +28,46 @@
  */
 package io.bioimage.specification;
 
+import io.bioimage.specification.util.SpecificationUtil;
+
 import java.util.List;
+import java.util.Objects;
 
 public class DefaultInputNodeSpecification extends DefaultNodeSpecification implements InputNodeSpecification {
 
 	private List<Integer> shapeMin;
 	private List<Integer> shapeStep;
+	private int[] shapeMinArray;
+	private int[] shapeStepArray;
 	private List<TransformationSpecification> preprocessing;
 
 
 	@Override
 	public void setShapeMin(List<Integer> shapeMin) {
 		this.shapeMin = shapeMin;
+		this.shapeMinArray = SpecificationUtil.toIntArray(shapeMin);
+		invalidateHashCode();
 	}
 
 	@Override
 	public void setShapeStep(List<Integer> shapeStep) {
 		this.shapeStep = shapeStep;
+		this.shapeStepArray = SpecificationUtil.toIntArray(shapeStep);
+		invalidateHashCode();
+	}
+
+	@Override
+	public void setShapeMinArray(int[] shapeMin) {
+		this.shapeMinArray = shapeMin;
+		this.shapeMin = SpecificationUtil.asList(shapeMin);
+		invalidateHashCode();
+	}
+
+	@Override
+	public void setShapeStepArray(int[] shapeStep) {
+		this.shapeStepArray = shapeStep;
+		this.shapeStep = SpecificationUtil.asList(shapeStep);
+		invalidateHashCode();
 	}
 
 	@Override
@@ -62,9 +85,43 @@ public class DefaultInputNodeSpecification extends DefaultNodeSpecification impl
 		return shapeStep;
 	}
 
+	@Override
+	public void reset() {
+		super.reset();
+		shapeMin = null;
+		shapeStep = null;
+		shapeMinArray = null;
+		shapeStepArray = null;
+		preprocessing = null;
+	}
+
+	@Override
+	public int[] getShapeMinArray() {
+		return shapeMinArray;
+	}
+
+	@Override
+	public int[] getShapeStepArray() {
+		return shapeStepArray;
+	}
+
 	@Override
 	public List<TransformationSpecification> getPreprocessing() {
 		return preprocessing;
 	}
 
+	@Override
+	public int hashCode() {
+		// the lists and transformations are not cached, they can be modified without notice of this node
+		return 31 * super.hashCode() + Objects.hash(shapeMin, shapeStep, preprocessing);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		DefaultInputNodeSpecification that = (DefaultInputNodeSpecification) o;
+		return Objects.equals(shapeMin, that.shapeMin) &&
+				Objects.equals(shapeStep, that.shapeStep) &&
+				Objects.equals(preprocessing, that.preprocessing);
+	}
 }
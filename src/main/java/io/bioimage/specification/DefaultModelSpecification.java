@@ -54,7 +54,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     private String source;
     private List<InputNodeSpecification> inputNodes = new ArrayList<>();
     private List<OutputNodeSpecification> outputNodes = new ArrayList<>();
-    private Map<String, WeightsSpecification> weights = new HashMap<>();
+    private Map<String, WeightsSpecification> weights = new LinkedHashMap<>();
     private String gitRepo;
     private Map<String, String> attachments;
     private String timestamp;
@@ -73,6 +73,8 @@ public class DefaultModelSpecification implements ModelSpecification {
     private List<String> links = new ArrayList<>();
     private List<AuthorSpecification> maintainers = new ArrayList<>();
     private String runMode;
+    // cached hash code of the properties which are not collections or nested specifications, 0 if not computed yet
+    private int cachedHashCode;
 
     public static String getModelZooSpecificationVersion() {
         return modelZooSpecificationVersion;
@@ -91,6 +93,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setInputNodes(List<InputNodeSpecification> inputNodes) {
+        modified();
         this.inputNodes = inputNodes;
     }
 
@@ -99,6 +102,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setOutputNodes(List<OutputNodeSpecification> outputNodes) {
+        modified();
         this.outputNodes = outputNodes;
     }
 
@@ -107,6 +111,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setHash(String hash) {
+        modified();
         this.hash = hash;
     }
 
@@ -121,16 +126,19 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setBadges(List<BadgeSpecification> badges) {
+        modified();
         this.badges = badges;
     }
 
     @Override
     public void setVersion(String version) {
+        modified();
         this.version = version;
     }
 
     @Override
     public void setType(String type) {
+        modified();
         this.type = type;
     }
 
@@ -145,6 +153,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setParent(ParentSpecification parent) {
+        modified();
         this.parent = parent;
     }
 
@@ -153,6 +162,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setCovers(List<String> covers) {
+        modified();
         this.covers = covers;
     }
 
@@ -161,6 +171,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setDependencies(String dependencies) {
+        modified();
         this.dependencies = dependencies;
     }
 
@@ -169,26 +180,32 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setPackaged_by(List<AuthorSpecification> packaged_by) {
+        modified();
         this.packaged_by = packaged_by;
     }
 
     public void addCitation(CitationSpecification citation) {
+        modified();
         citations.add(citation);
     }
 
     public void addAuthor(AuthorSpecification author) {
+        modified();
         authors.add(author);
     }
 
     public void addMaintainer(AuthorSpecification maintainer) {
+        modified();
         maintainers.add(maintainer);
     }
 
     public void addInputNode(InputNodeSpecification inputNode) {
+        modified();
         inputNodes.add(inputNode);
     }
 
     public void addOutputNode(OutputNodeSpecification outputNode) {
+        modified();
         outputNodes.add(outputNode);
     }
 
@@ -198,6 +215,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setInputs(List<InputNodeSpecification> inputs) {
+        modified();
         this.inputNodes = inputs;
     }
 
@@ -207,6 +225,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setOutputs(List<OutputNodeSpecification> outputs) {
+        modified();
         this.outputNodes = outputs;
     }
 
@@ -216,6 +235,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setFormatVersion(String version) {
+        modified();
         formatVersion = version;
     }
 
@@ -227,6 +247,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Deprecated
     public void setTrainingKwargs(Map<String, Object> trainingKwargs) {
+        modified();
         this.trainingKwargs = trainingKwargs;
     }
 
@@ -237,6 +258,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setName(String name) {
+        modified();
         this.name = name;
     }
 
@@ -247,6 +269,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setDescription(String description) {
+        modified();
         this.description = description;
     }
 
@@ -256,6 +279,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setCitations(List<CitationSpecification> citations) {
+        modified();
         this.citations = citations;
     }
 
@@ -265,6 +289,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setWeights(Map<String, WeightsSpecification> weights) {
+        modified();
         this.weights = weights;
     }
 
@@ -275,6 +300,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setAuthors(List<AuthorSpecification> modelAuthors) {
+        modified();
         this.authors = modelAuthors;
     }
 
@@ -284,6 +310,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setDocumentation(String documentation) {
+        modified();
         this.documentation = documentation;
     }
 
@@ -294,6 +321,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setTags(List<String> tags) {
+        modified();
         this.tags = tags;
     }
 
@@ -303,6 +331,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setLicense(String license) {
+        modified();
         this.license = license;
     }
 
@@ -312,6 +341,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setSource(String source) {
+        modified();
         this.source = source;
     }
 
@@ -321,6 +351,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setGitRepo(String repo) {
+        modified();
         this.gitRepo = repo;
     }
 
@@ -330,6 +361,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setAttachments(Map<String, String> attachments) {
+        modified();
         this.attachments = attachments;
     }
 
@@ -339,6 +371,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setTestInputs(List<String> testInputs) {
+        modified();
         this.testInputs = testInputs;
     }
 
@@ -348,6 +381,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setTestOutputs(List<String> testOutputs) {
+        modified();
         this.testOutputs = testOutputs;
     }
 
@@ -358,6 +392,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setSampleInputs(List<String> sampleInputs) {
+        modified();
         this.sampleInputs = sampleInputs;
     }
 
@@ -368,6 +403,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Override
     public void setSampleOutputs(List<String> sampleOutputs) {
+        modified();
         this.sampleOutputs = sampleOutputs;
     }
 
@@ -377,6 +413,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setTimestamp(String timestamp) {
+        modified();
         this.timestamp = timestamp;
     }
 
@@ -386,6 +423,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setExecutionModel(String executionModel) {
+        modified();
         this.executionModel = executionModel;
     }
 
@@ -421,6 +459,7 @@ public class DefaultModelSpecification implements ModelSpecification {
 
     @Deprecated
     public void setTrainingSource(String trainingSource) {
+        modified();
         setSource(trainingSource);
     }
 
@@ -430,10 +469,12 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setConfig(Map<String, Object> config) {
+        modified();
         this.config = config;
     }
 
     public void addWeights(String name, WeightsSpecification weights) {
+        modified();
         this.weights.put(name,weights);
     }
 
@@ -446,6 +487,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setDownloadUrl(String downloadUrl) {
+        modified();
         this.downloadUrl = downloadUrl;
     }
 
@@ -454,6 +496,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setIcon(String icon) {
+        modified();
         this.icon = icon;
     }
 
@@ -462,6 +505,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setLinks(List<String> links) {
+        modified();
         this.links = links;
     }
 
@@ -470,6 +514,7 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setMaintainers(List<AuthorSpecification> maintainers) {
+        modified();
         this.maintainers = maintainers;
     }
 
@@ -478,14 +523,131 @@ public class DefaultModelSpecification implements ModelSpecification {
     }
 
     public void setRunMode(String runMode) {
+        modified();
         this.runMode = runMode;
     }
 
     public void addBadge(BadgeSpecification badge) {
+        modified();
         badges.add(badge);
     }
 
     public void addPackagedBy(AuthorSpecification packager) {
+        modified();
         this.packaged_by.add(packager);
     }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = Objects.hash(formatVersion, name, description, documentation, license, source, gitRepo,
+                    timestamp, executionModel, hash, dependencies, version, type, downloadUrl, icon, runMode);
+            cachedHashCode = result;
+        }
+        // collections are not cached, they are shared with the caller and can be modified without notice of this object
+        result = 31 * result + Objects.hash(sampleInputs, sampleOutputs, testInputs, testOutputs, tags, covers, links,
+                attachments);
+        result = 31 * result + Objects.hashCode(citations);
+        result = 31 * result + Objects.hashCode(badges);
+        result = 31 * result + Objects.hashCode(authors);
+        result = 31 * result + Objects.hashCode(inputNodes);
+        result = 31 * result + Objects.hashCode(outputNodes);
+        result = 31 * result + Objects.hashCode(weights);
+        result = 31 * result + Objects.hashCode(parent);
+        result = 31 * result + Objects.hashCode(maintainers);
+        result = 31 * result + Objects.hashCode(packaged_by);
+        result = 31 * result + Objects.hashCode(config);
+        result = 31 * result + Objects.hashCode(trainingKwargs);
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DefaultModelSpecification that = (DefaultModelSpecification) o;
+        return Objects.equals(formatVersion, that.formatVersion) &&
+                Objects.equals(sampleInputs, that.sampleInputs) &&
+                Objects.equals(sampleOutputs, that.sampleOutputs) &&
+                Objects.equals(testInputs, that.testInputs) &&
+                Objects.equals(testOutputs, that.testOutputs) &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(citations, that.citations) &&
+                Objects.equals(badges, that.badges) &&
+                Objects.equals(authors, that.authors) &&
+                Objects.equals(documentation, that.documentation) &&
+                Objects.equals(tags, that.tags) &&
+                Objects.equals(license, that.license) &&
+                Objects.equals(source, that.source) &&
+                Objects.equals(inputNodes, that.inputNodes) &&
+                Objects.equals(outputNodes, that.outputNodes) &&
+                Objects.equals(weights, that.weights) &&
+                Objects.equals(gitRepo, that.gitRepo) &&
+                Objects.equals(attachments, that.attachments) &&
+                Objects.equals(timestamp, that.timestamp) &&
+                Objects.equals(trainingKwargs, that.trainingKwargs) &&
+                Objects.equals(config, that.config) &&
+                Objects.equals(executionModel, that.executionModel) &&
+                Objects.equals(hash, that.hash) &&
+                Objects.equals(parent, that.parent) &&
+                Objects.equals(covers, that.covers) &&
+                Objects.equals(dependencies, that.dependencies) &&
+                Objects.equals(packaged_by, that.packaged_by) &&
+                Objects.equals(version, that.version) &&
+                Objects.equals(type, that.type) &&
+                Objects.equals(downloadUrl, that.downloadUrl) &&
+                Objects.equals(icon, that.icon) &&
+                Objects.equals(links, that.links) &&
+                Objects.equals(maintainers, that.maintainers) &&
+                Objects.equals(runMode, that.runMode);
+    }
+
+    /**
+     * Restores the state of a new instance so that this specification can be filled by a reader again.
+     * Objects obtained from the getters before are not modified.
+     */
+    public void reset() {
+        modified();
+        formatVersion = modelZooSpecificationVersion;
+        sampleInputs = new ArrayList<>();
+        sampleOutputs = new ArrayList<>();
+        testInputs = new ArrayList<>();
+        testOutputs = new ArrayList<>();
+        name = null;
+        description = null;
+        citations = new ArrayList<>();
+        badges = new ArrayList<>();
+        authors = new ArrayList<>();
+        documentation = null;
+        tags = null;
+        license = null;
+        source = null;
+        inputNodes = new ArrayList<>();
+        outputNodes = new ArrayList<>();
+        weights = new LinkedHashMap<>();
+        gitRepo = null;
+        attachments = null;
+        timestamp = null;
+        trainingKwargs = null;
+        config = null;
+        executionModel = null;
+        hash = null;
+        parent = null;
+        covers = new ArrayList<>();
+        dependencies = null;
+        packaged_by = null;
+        version = null;
+        type = null;
+        downloadUrl = null;
+        icon = null;
+        links = new ArrayList<>();
+        maintainers = new ArrayList<>();
+        runMode = null;
+    }
+
+    private void modified() {
+        cachedHashCode = 0;
+    }
 }
@@ -28,16 +28,26 @@
  */
 package io.bioimage.specification;
 
+import io.bioimage.specification.util.SpecificationUtil;
+
 import java.util.List;
+import java.util.Objects;
 
 public abstract class DefaultNodeSpecification implements NodeSpecification {
 
 	private String name;
 	private String axes;
+	// parsed on first access, the instances are immutable so concurrent parsing is harmless
+	private Axes parsedAxes;
 	private String description;
 	private String dataType;
 	private List<?> dataRange;
 	private List<Integer> halo;
+	// converted once when the halo is set, so that shape computations do not unbox the list,
+	// later modifications of the list are not reflected
+	private int[] haloArray;
+	// cached hash code of the own properties which are not lists, 0 if not computed yet
+	private int cachedHashCode;
 
 	@Override
 	public String getName() {
@@ -67,26 +77,70 @@ public abstract class DefaultNodeSpecification implements NodeSpecification {
 	@Override
 	public void setName(String name) {
 		this.name = name;
+		invalidateHashCode();
 	}
 
 	@Override
 	public void setAxes(String axes) {
 		this.axes = axes;
+		this.parsedAxes = null;
+		invalidateHashCode();
+	}
+
+	@Override
+	public Axes getParsedAxes() {
+		Axes result = parsedAxes;
+		if (result == null && axes != null) {
+			result = Axes.of(axes);
+			parsedAxes = result;
+		}
+		return result;
 	}
 
 	@Override
 	public void setDataType(String dataType) {
 		this.dataType = dataType;
+		invalidateHashCode();
 	}
 
 	@Override
 	public void setDataRange(List<?> dataRange) {
 		this.dataRange = dataRange;
+		invalidateHashCode();
+	}
+
+	@Override
+	public int[] getHaloArray() {
+		return haloArray;
 	}
 
 	@Override
 	public void setHalo(List<Integer> halo) {
 		this.halo = halo;
+		this.haloArray = SpecificationUtil.toIntArray(halo);
+		invalidateHashCode();
+	}
+
+	@Override
+	public void setHaloArray(int[] halo) {
+		this.haloArray = halo;
+		this.halo = SpecificationUtil.asList(halo);
+		invalidateHashCode();
+	}
+
+	/**
+	 * Restores the state of a new instance.
+	 */
+	public void reset() {
+		name = null;
+		axes = null;
+		parsedAxes = null;
+		description = null;
+		dataType = null;
+		dataRange = null;
+		halo = null;
+		haloArray = null;
+		invalidateHashCode();
 	}
 
 	@Override
@@ -97,6 +151,41 @@ public abstract class DefaultNodeSpecification implements NodeSpecification {
 	@Override
 	public void setDescription(String description) {
 		this.description = description;
+		invalidateHashCode();
+	}
+
+	@Override
+	public int hashCode() {
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = computeHashCode();
+			cachedHashCode = result;
+		}
+		// lists are not cached, they are shared with the caller and can be modified without notice of this node
+		return 31 * result + Objects.hash(dataRange, halo);
+	}
+
+	/**
+	 * @return the hash code of the properties set by the setters of this object, cached until {@link #invalidateHashCode()}
+	 */
+	protected int computeHashCode() {
+		return Objects.hash(name, axes, description, dataType);
+	}
+
+	protected void invalidateHashCode() {
+		cachedHashCode = 0;
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		DefaultNodeSpecification that = (DefaultNodeSpecification) o;
+		return Objects.equals(name, that.name) &&
+				Objects.equals(axes, that.axes) &&
+				Objects.equals(description, that.description) &&
+				Objects.equals(dataType, that.dataType) &&
+				Objects.equals(dataRange, that.dataRange) &&
+				Objects.equals(halo, that.halo);
+	}
 }
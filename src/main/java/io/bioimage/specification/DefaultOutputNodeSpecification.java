@@ -28,28 +28,52 @@
  */
 package io.bioimage.specification;
 
+import io.bioimage.specification.util.SpecificationUtil;
+
 import java.util.List;
+import java.util.Objects;
 
 public class DefaultOutputNodeSpecification extends DefaultNodeSpecification implements OutputNodeSpecification {
 
 	private String referenceInputName;
 	private List<? extends Number> shapeScale;
 	private List<Integer> shapeOffset;
+	private double[] shapeScaleArray;
+	private int[] shapeOffsetArray;
 	private List<TransformationSpecification> postprocessing;
 
 	@Override
 	public void setShapeReferenceInput(String referenceInputName) {
 		this.referenceInputName = referenceInputName;
+		invalidateHashCode();
 	}
 
 	@Override
 	public void setShapeScale(List<? extends Number> shapeScale) {
 		this.shapeScale = shapeScale;
+		this.shapeScaleArray = SpecificationUtil.toDoubleArray(shapeScale);
+		invalidateHashCode();
 	}
 
 	@Override
 	public void setShapeOffset(List<Integer> shapeOffset) {
 		this.shapeOffset = shapeOffset;
+		this.shapeOffsetArray = SpecificationUtil.toIntArray(shapeOffset);
+		invalidateHashCode();
+	}
+
+	@Override
+	public void setShapeScaleArray(double[] shapeScale) {
+		this.shapeScaleArray = shapeScale;
+		this.shapeScale = SpecificationUtil.asList(shapeScale);
+		invalidateHashCode();
+	}
+
+	@Override
+	public void setShapeOffsetArray(int[] shapeOffset) {
+		this.shapeOffsetArray = shapeOffset;
+		this.shapeOffset = SpecificationUtil.asList(shapeOffset);
+		invalidateHashCode();
 	}
 
 	@Override
@@ -72,8 +96,50 @@ public class DefaultOutputNodeSpecification extends DefaultNodeSpecification imp
 		return shapeOffset;
 	}
 
+	@Override
+	public void reset() {
+		super.reset();
+		referenceInputName = null;
+		shapeScale = null;
+		shapeOffset = null;
+		shapeScaleArray = null;
+		shapeOffsetArray = null;
+		postprocessing = null;
+	}
+
+	@Override
+	public double[] getShapeScaleArray() {
+		return shapeScaleArray;
+	}
+
+	@Override
+	public int[] getShapeOffsetArray() {
+		return shapeOffsetArray;
+	}
+
 	@Override
 	public List<TransformationSpecification> getPostprocessing() {
 		return postprocessing;
 	}
+
+	@Override
+	public int hashCode() {
+		// the lists and transformations are not cached, they can be modified without notice of this node
+		return 31 * super.hashCode() + Objects.hash(shapeScale, shapeOffset, postprocessing);
+	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hashCode(referenceInputName);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		DefaultOutputNodeSpecification that = (DefaultOutputNodeSpecification) o;
+		return Objects.equals(referenceInputName, that.referenceInputName) &&
+				Objects.equals(shapeScale, that.shapeScale) &&
+				Objects.equals(shapeOffset, that.shapeOffset) &&
+				Objects.equals(postprocessing, that.postprocessing);
+	}
 }
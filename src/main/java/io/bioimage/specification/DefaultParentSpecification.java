@@ -28,9 +28,13 @@
  */
 package io.bioimage.specification;
 
+import java.util.Objects;
+
 public class DefaultParentSpecification implements ParentSpecification {
     private String hash;
     private String uri;
+    // cached hash code, 0 if not computed yet
+    private int cachedHashCode;
 
     @Override
     public String getHash() {
@@ -40,6 +44,7 @@ public class DefaultParentSpecification implements ParentSpecification {
     @Override
     public void setHash(String hash) {
         this.hash = hash;
+        cachedHashCode = 0;
     }
 
     @Override
@@ -50,5 +55,25 @@ public class DefaultParentSpecification implements ParentSpecification {
     @Override
     public void setUri(String uri) {
         this.uri = uri;
+        cachedHashCode = 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = Objects.hash(hash, uri);
+            cachedHashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DefaultParentSpecification that = (DefaultParentSpecification) o;
+        return Objects.equals(hash, that.hash) &&
+                Objects.equals(uri, that.uri);
     }
 }
@@ -30,6 +30,7 @@ package io.bioimage.specification;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class DefaultWeightsSpecification implements WeightsSpecification {
 
@@ -38,6 +39,8 @@ public class DefaultWeightsSpecification implements WeightsSpecification {
     private String parent;
     private List<AuthorSpecification> authors;
     private Map<String, String> attachments;
+    // cached hash code of the own properties, 0 if not computed yet
+    private int cachedHashCode;
 
 
     @Override
@@ -48,6 +51,7 @@ public class DefaultWeightsSpecification implements WeightsSpecification {
     @Override
     public void setSource(String source) {
         this.source = source;
+        invalidateHashCode();
     }
 
     @Override
@@ -58,6 +62,7 @@ public class DefaultWeightsSpecification implements WeightsSpecification {
     @Override
     public void setSha256(String sha256) {
         this.sha256 = sha256;
+        invalidateHashCode();
     }
 
     @Override
@@ -68,6 +73,7 @@ public class DefaultWeightsSpecification implements WeightsSpecification {
     @Override
     public void setParent(String parent) {
         this.parent = parent;
+        invalidateHashCode();
     }
 
     @Override
@@ -88,6 +94,40 @@ public class DefaultWeightsSpecification implements WeightsSpecification {
     @Override
     public void setAttachments(Map<String, String> attachments) {
         this.attachments = attachments;
+        invalidateHashCode();
     }
 
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = computeHashCode();
+            cachedHashCode = result;
+        }
+        // the authors and attachments are not cached, they can be modified without notice of this object
+        return 31 * result + Objects.hash(authors, attachments);
+    }
+
+    /**
+     * @return the hash code of the properties set by the setters of this object, cached until {@link #invalidateHashCode()}
+     */
+    protected int computeHashCode() {
+        return Objects.hash(source, sha256, parent);
+    }
+
+    protected void invalidateHashCode() {
+        cachedHashCode = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DefaultWeightsSpecification that = (DefaultWeightsSpecification) o;
+        return Objects.equals(source, that.source) &&
+                Objects.equals(sha256, that.sha256) &&
+                Objects.equals(parent, that.parent) &&
+                Objects.equals(authors, that.authors) &&
+                Objects.equals(attachments, that.attachments);
+    }
 }
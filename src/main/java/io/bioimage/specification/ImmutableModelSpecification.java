@@ -0,0 +1,721 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import io.bioimage.specification.transformation.BinarizeTransformation;
+import io.bioimage.specification.transformation.ClipTransformation;
+import io.bioimage.specification.transformation.DefaultImageTransformation;
+import io.bioimage.specification.transformation.PercentileTransformation;
+import io.bioimage.specification.transformation.ScaleLinearTransformation;
+import io.bioimage.specification.transformation.ScaleMinMaxTransformation;
+import io.bioimage.specification.transformation.ZeroMeanUnitVarianceTransformation;
+import io.bioimage.specification.weights.OnnxWeightsSpecification;
+import io.bioimage.specification.weights.TensorFlowSavedModelBundleSpecification;
+import io.bioimage.specification.weights.TorchscriptWeightsSpecification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable snapshot of a model specification which can be shared between threads without synchronization.
+ * All fields are final and all collections are copied into unmodifiable collections when the snapshot is created,
+ * the getters return them without allocating. Config, training kwargs and attachments are copied deeply.
+ * <p>
+ * Nested specification objects like input nodes, weights or authors are copied into new instances of the same class,
+ * so that later changes of the source, e.g. by a scanner reusing it, do not leak into the snapshot.
+ * Only the default implementations of this library are copied, other implementations are shared with the source.
+ * The copies are not locked, they must not be modified. The setters throw {@link UnsupportedOperationException}.
+ * <p>
+ * Variants, e.g. fine-tuned models which only differ in their weights, are created with the {@code with*} methods.
+ * A variant shares all unchanged fields with its base, including the collections, instead of copying them.
+ */
+public final class ImmutableModelSpecification implements ModelSpecification {
+
+    private final String formatVersion;
+    private final List<String> testInputs;
+    private final List<String> testOutputs;
+    private final List<String> sampleInputs;
+    private final List<String> sampleOutputs;
+    private final List<InputNodeSpecification> inputs;
+    private final List<OutputNodeSpecification> outputs;
+    private final String name;
+    private final String description;
+    private final List<CitationSpecification> citations;
+    private final Map<String, WeightsSpecification> weights;
+    private final List<AuthorSpecification> authors;
+    private final String documentation;
+    private final List<String> tags;
+    private final String license;
+    private final String source;
+    private final String gitRepo;
+    private final Map<String, String> attachments;
+    private final String timestamp;
+    private final String executionModel;
+    private final Map<String, Object> trainingKwargs;
+    private final String trainingSource;
+    private final Map<String, Object> config;
+    private final String dependencies;
+    private final List<String> covers;
+    private final String hash;
+    private final ParentSpecification parent;
+    private final List<BadgeSpecification> badges;
+    private final String version;
+    private final String type;
+    private final List<AuthorSpecification> maintainers;
+    private final String runMode;
+    private final String icon;
+    private final List<String> links;
+    private final String downloadUrl;
+    private final List<AuthorSpecification> packagedBy;
+    // racy single-check, like String#hashCode: the hashes are immutable and computing them twice is harmless
+    private String contentHash;
+    // cached hash code of all fields, 0 if not computed yet
+    private int cachedHashCode;
+
+    // the deprecated training kwargs and source are still copied
+    @SuppressWarnings("deprecation")
+    private ImmutableModelSpecification(ModelSpecification specification) {
+        formatVersion = specification.getFormatVersion();
+        testInputs = copy(specification.getTestInputs());
+        testOutputs = copy(specification.getTestOutputs());
+        sampleInputs = copy(specification.getSampleInputs());
+        sampleOutputs = copy(specification.getSampleOutputs());
+        inputs = copy(specification.getInputs(), ImmutableModelSpecification::copyInput);
+        outputs = copy(specification.getOutputs(), ImmutableModelSpecification::copyOutput);
+        name = specification.getName();
+        description = specification.getDescription();
+        citations = copy(specification.getCitations(), ImmutableModelSpecification::copyCitation);
+        weights = copyWeights(specification.getWeights());
+        authors = copy(specification.getAuthors(), ImmutableModelSpecification::copyAuthor);
+        documentation = specification.getDocumentation();
+        tags = copy(specification.getTags());
+        license = specification.getLicense();
+        source = specification.getSource();
+        gitRepo = specification.getGitRepo();
+        attachments = copy(specification.getAttachments());
+        timestamp = specification.getTimestamp();
+        executionModel = specification.getExecutionModel();
+        trainingKwargs = copyDeep(specification.getTrainingKwargs());
+        trainingSource = specification.getTrainingSource();
+        config = copyDeep(specification.getConfig());
+        dependencies = specification.getDependencies();
+        covers = copy(specification.getCovers());
+        hash = specification.getHash();
+        parent = copyParent(specification.getParent());
+        badges = copy(specification.getBadges(), ImmutableModelSpecification::copyBadge);
+        version = specification.getVersion();
+        type = specification.getType();
+        maintainers = copy(specification.getMaintainers(), ImmutableModelSpecification::copyAuthor);
+        runMode = specification.getRunMode();
+        icon = specification.getIcon();
+        links = copy(specification.getLinks());
+        downloadUrl = specification.getDownloadUrl();
+        packagedBy = copy(specification.getPackagedBy(), ImmutableModelSpecification::copyAuthor);
+    }
+
+    /**
+     * Creates a variant sharing all fields with {@code base} except the given ones.
+     */
+    private ImmutableModelSpecification(ImmutableModelSpecification base, Map<String, WeightsSpecification> weights, String version,
+                                        ParentSpecification parent, String name, String description, String timestamp) {
+        formatVersion = base.formatVersion;
+        testInputs = base.testInputs;
+        testOutputs = base.testOutputs;
+        sampleInputs = base.sampleInputs;
+        sampleOutputs = base.sampleOutputs;
+        inputs = base.inputs;
+        outputs = base.outputs;
+        this.name = name;
+        this.description = description;
+        citations = base.citations;
+        this.weights = weights;
+        authors = base.authors;
+        documentation = base.documentation;
+        tags = base.tags;
+        license = base.license;
+        source = base.source;
+        gitRepo = base.gitRepo;
+        attachments = base.attachments;
+        this.timestamp = timestamp;
+        executionModel = base.executionModel;
+        trainingKwargs = base.trainingKwargs;
+        trainingSource = base.trainingSource;
+        config = base.config;
+        dependencies = base.dependencies;
+        covers = base.covers;
+        hash = base.hash;
+        this.parent = parent;
+        badges = base.badges;
+        this.version = version;
+        type = base.type;
+        maintainers = base.maintainers;
+        runMode = base.runMode;
+        icon = base.icon;
+        links = base.links;
+        downloadUrl = base.downloadUrl;
+        packagedBy = base.packagedBy;
+    }
+
+    /**
+     * @return an immutable snapshot of the current state of the specification, or the specification itself if it already is one
+     */
+    public static ImmutableModelSpecification of(ModelSpecification specification) {
+        if (specification instanceof ImmutableModelSpecification) {
+            return (ImmutableModelSpecification) specification;
+        }
+        return new ImmutableModelSpecification(specification);
+    }
+
+    /**
+     * @return a variant with other weights which shares all other properties with this specification
+     */
+    public ImmutableModelSpecification withWeights(Map<String, WeightsSpecification> weights) {
+        return new ImmutableModelSpecification(this, copyWeights(weights), version, parent, name, description, timestamp);
+    }
+
+    /**
+     * @return a variant with the weights entry added or replaced, see {@link #withWeights(Map)}
+     */
+    public ImmutableModelSpecification withWeights(String name, WeightsSpecification weights) {
+        Map<String, WeightsSpecification> result = this.weights != null ? new LinkedHashMap<>(this.weights) : new LinkedHashMap<>();
+        result.put(name, copyWeights(weights));
+        return new ImmutableModelSpecification(this, Collections.unmodifiableMap(result), version, parent, this.name, description, timestamp);
+    }
+
+    public ImmutableModelSpecification withVersion(String version) {
+        return new ImmutableModelSpecification(this, weights, version, parent, name, description, timestamp);
+    }
+
+    public ImmutableModelSpecification withParent(ParentSpecification parent) {
+        return new ImmutableModelSpecification(this, weights, version, copyParent(parent), name, description, timestamp);
+    }
+
+    public ImmutableModelSpecification withName(String name) {
+        return new ImmutableModelSpecification(this, weights, version, parent, name, description, timestamp);
+    }
+
+    public ImmutableModelSpecification withDescription(String description) {
+        return new ImmutableModelSpecification(this, weights, version, parent, name, description, timestamp);
+    }
+
+    public ImmutableModelSpecification withTimestamp(String timestamp) {
+        return new ImmutableModelSpecification(this, weights, version, parent, name, description, timestamp);
+    }
+
+    private static <T> List<T> copy(List<T> list) {
+        return list != null ? Collections.unmodifiableList(new ArrayList<>(list)) : null;
+    }
+
+    private static <T, S> Map<T, S> copy(Map<T, S> map) {
+        return map != null ? Collections.unmodifiableMap(new LinkedHashMap<>(map)) : null;
+    }
+
+    private static <T> List<T> copy(List<T> list, UnaryOperator<T> copyElement) {
+        if (list == null) return null;
+        List<T> copy = new ArrayList<>(list.size());
+        for (T element : list) {
+            copy.add(copyElement.apply(element));
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static Map<String, WeightsSpecification> copyWeights(Map<String, WeightsSpecification> weights) {
+        if (weights == null) return null;
+        Map<String, WeightsSpecification> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, WeightsSpecification> entry : weights.entrySet()) {
+            copy.put(entry.getKey(), copyWeights(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static WeightsSpecification copyWeights(WeightsSpecification weights) {
+        if (weights == null) return null;
+        DefaultWeightsSpecification copy;
+        if (weights.getClass() == TensorFlowSavedModelBundleSpecification.class) {
+            TensorFlowSavedModelBundleSpecification tensorFlow = new TensorFlowSavedModelBundleSpecification();
+            tensorFlow.setTag(((TensorFlowSavedModelBundleSpecification) weights).getTag());
+            copy = tensorFlow;
+        } else if (weights.getClass() == OnnxWeightsSpecification.class) {
+            OnnxWeightsSpecification onnx = new OnnxWeightsSpecification();
+            onnx.setOpsetVersion(((OnnxWeightsSpecification) weights).getOpsetVersion());
+            copy = onnx;
+        } else if (weights.getClass() == TorchscriptWeightsSpecification.class) {
+            copy = new TorchscriptWeightsSpecification();
+        } else if (weights.getClass() == DefaultWeightsSpecification.class) {
+            copy = new DefaultWeightsSpecification();
+        } else {
+            return weights;
+        }
+        copy.setSource(weights.getSource());
+        copy.setSha256(weights.getSha256());
+        copy.setParent(weights.getParent());
+        copy.setAuthors(copy(weights.getAuthors(), ImmutableModelSpecification::copyAuthor));
+        copy.setAttachments(copy(weights.getAttachments()));
+        return copy;
+    }
+
+    private static InputNodeSpecification copyInput(InputNodeSpecification input) {
+        if (input == null || input.getClass() != DefaultInputNodeSpecification.class) return input;
+        DefaultInputNodeSpecification copy = new DefaultInputNodeSpecification();
+        copyNode(input, copy);
+        copy.setShapeMin(copy(input.getShapeMin()));
+        copy.setShapeStep(copy(input.getShapeStep()));
+        copy.setPreprocessing(copy(input.getPreprocessing(), ImmutableModelSpecification::copyTransformation));
+        return copy;
+    }
+
+    private static OutputNodeSpecification copyOutput(OutputNodeSpecification output) {
+        if (output == null || output.getClass() != DefaultOutputNodeSpecification.class) return output;
+        DefaultOutputNodeSpecification copy = new DefaultOutputNodeSpecification();
+        copyNode(output, copy);
+        copy.setShapeReferenceInput(output.getReferenceInputName());
+        copy.setShapeScale(copy(output.getShapeScale()));
+        copy.setShapeOffset(copy(output.getShapeOffset()));
+        copy.setPostprocessing(copy(output.getPostprocessing(), ImmutableModelSpecification::copyTransformation));
+        return copy;
+    }
+
+    private static void copyNode(NodeSpecification node, NodeSpecification copy) {
+        copy.setName(node.getName());
+        copy.setAxes(node.getAxes());
+        copy.setDescription(node.getDescription());
+        copy.setDataType(node.getDataType());
+        copy.setDataRange((List<?>) copyValue(node.getDataRange()));
+        copy.setHalo(copy(node.getHalo()));
+    }
+
+    private static TransformationSpecification copyTransformation(TransformationSpecification transformation) {
+        if (transformation == null) return null;
+        DefaultImageTransformation copy;
+        if (transformation.getClass() == ScaleLinearTransformation.class) {
+            ScaleLinearTransformation scaleLinear = new ScaleLinearTransformation();
+            scaleLinear.setGain(((ScaleLinearTransformation) transformation).getGain());
+            scaleLinear.setOffset(((ScaleLinearTransformation) transformation).getOffset());
+            copy = scaleLinear;
+        } else if (transformation.getClass() == ZeroMeanUnitVarianceTransformation.class) {
+            ZeroMeanUnitVarianceTransformation zeroMean = new ZeroMeanUnitVarianceTransformation();
+            zeroMean.setMean(((ZeroMeanUnitVarianceTransformation) transformation).getMean());
+            zeroMean.setStd(((ZeroMeanUnitVarianceTransformation) transformation).getStd());
+            copy = zeroMean;
+        } else if (transformation.getClass() == BinarizeTransformation.class) {
+            BinarizeTransformation binarize = new BinarizeTransformation();
+            binarize.setThreshold(((BinarizeTransformation) transformation).getThreshold());
+            copy = binarize;
+        } else if (transformation.getClass() == ScaleMinMaxTransformation.class) {
+            ScaleMinMaxTransformation scaleMinMax = new ScaleMinMaxTransformation();
+            scaleMinMax.setReferenceInput(((ScaleMinMaxTransformation) transformation).getReferenceInput());
+            scaleMinMax.setMinPercentile(((ScaleMinMaxTransformation) transformation).getMinPercentile());
+            scaleMinMax.setMaxPercentile(((ScaleMinMaxTransformation) transformation).getMaxPercentile());
+            copy = scaleMinMax;
+        } else if (transformation.getClass() == PercentileTransformation.class) {
+            PercentileTransformation percentile = new PercentileTransformation();
+            percentile.setMinPercentile(((PercentileTransformation) transformation).getMinPercentile());
+            percentile.setMaxPercentile(((PercentileTransformation) transformation).getMaxPercentile());
+            copy = percentile;
+        } else if (transformation.getClass() == ClipTransformation.class) {
+            ClipTransformation clip = new ClipTransformation();
+            clip.setMin(((ClipTransformation) transformation).getMin());
+            clip.setMax(((ClipTransformation) transformation).getMax());
+            copy = clip;
+        } else {
+            return transformation;
+        }
+        copy.setMode(((DefaultImageTransformation) transformation).getMode());
+        return copy;
+    }
+
+    private static AuthorSpecification copyAuthor(AuthorSpecification author) {
+        if (author == null || author.getClass() != DefaultAuthorSpecification.class) return author;
+        DefaultAuthorSpecification copy = new DefaultAuthorSpecification();
+        copy.setName(author.getName());
+        copy.setAffiliation(author.getAffiliation());
+        copy.setOrcId(author.getOrcId());
+        copy.setEmail(author.getEmail());
+        copy.setGithubUser(author.getGithubUser());
+        return copy;
+    }
+
+    private static CitationSpecification copyCitation(CitationSpecification citation) {
+        if (citation == null || citation.getClass() != DefaultCitationSpecification.class) return citation;
+        DefaultCitationSpecification copy = new DefaultCitationSpecification();
+        copy.setCitationText(citation.getCitationText());
+        copy.setDOIText(citation.getDoiText());
+        copy.setUrl(citation.getUrl());
+        return copy;
+    }
+
+    private static BadgeSpecification copyBadge(BadgeSpecification badge) {
+        if (badge == null || badge.getClass() != DefaultBadgeSpecification.class) return badge;
+        DefaultBadgeSpecification copy = new DefaultBadgeSpecification();
+        copy.setLabel(badge.getLabel());
+        copy.setIcon(badge.getIcon());
+        copy.setUrl(badge.getUrl());
+        return copy;
+    }
+
+    private static ParentSpecification copyParent(ParentSpecification parent) {
+        if (parent == null || parent.getClass() != DefaultParentSpecification.class) return parent;
+        DefaultParentSpecification copy = new DefaultParentSpecification();
+        copy.setHash(parent.getHash());
+        copy.setUri(parent.getUri());
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copyDeep(Map<String, Object> map) {
+        return map != null ? (Map<String, Object>) copyValue(map) : null;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                copy.add(copyValue(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 hash of the canonical form of this specification, computed on the first call
+     * @see ContentHash
+     */
+    public String contentHash() {
+        String hash = contentHash;
+        if (hash == null) {
+            hash = ContentHash.of(this);
+            contentHash = hash;
+        }
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ImmutableModelSpecification that = (ImmutableModelSpecification) o;
+        // both hash codes are cached, most unequal specifications are rejected without comparing their fields
+        if (hashCode() != that.hashCode()) return false;
+        return Objects.equals(formatVersion, that.formatVersion) &&
+                Objects.equals(sampleInputs, that.sampleInputs) &&
+                Objects.equals(sampleOutputs, that.sampleOutputs) &&
+                Objects.equals(testInputs, that.testInputs) &&
+                Objects.equals(testOutputs, that.testOutputs) &&
+                Objects.equals(name, that.name) &&
+                Objects.equals(description, that.description) &&
+                Objects.equals(citations, that.citations) &&
+                Objects.equals(badges, that.badges) &&
+                Objects.equals(authors, that.authors) &&
+                Objects.equals(documentation, that.documentation) &&
+                Objects.equals(tags, that.tags) &&
+                Objects.equals(license, that.license) &&
+                Objects.equals(source, that.source) &&
+                Objects.equals(inputs, that.inputs) &&
+                Objects.equals(outputs, that.outputs) &&
+                Objects.equals(weights, that.weights) &&
+                Objects.equals(gitRepo, that.gitRepo) &&
+                Objects.equals(attachments, that.attachments) &&
+                Objects.equals(timestamp, that.timestamp) &&
+                Objects.equals(trainingKwargs, that.trainingKwargs) &&
+                Objects.equals(trainingSource, that.trainingSource) &&
+                Objects.equals(config, that.config) &&
+                Objects.equals(executionModel, that.executionModel) &&
+                Objects.equals(hash, that.hash) &&
+                Objects.equals(parent, that.parent) &&
+                Objects.equals(covers, that.covers) &&
+                Objects.equals(dependencies, that.dependencies) &&
+                Objects.equals(packagedBy, that.packagedBy) &&
+                Objects.equals(version, that.version) &&
+                Objects.equals(type, that.type) &&
+                Objects.equals(downloadUrl, that.downloadUrl) &&
+                Objects.equals(icon, that.icon) &&
+                Objects.equals(links, that.links) &&
+                Objects.equals(maintainers, that.maintainers) &&
+                Objects.equals(runMode, that.runMode);
+    }
+
+    /**
+     * Computed on the first call, all fields are final and their copies must not be modified.
+     */
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = Objects.hash(formatVersion, name, description, documentation, license, source, gitRepo,
+                    timestamp, executionModel, trainingSource, hash, dependencies, version, type, downloadUrl, icon,
+                    runMode);
+            result = 31 * result + Objects.hash(sampleInputs, sampleOutputs, testInputs, testOutputs, tags, covers,
+                    links, attachments);
+            result = 31 * result + Objects.hash(citations, badges, authors, inputs, outputs, weights, parent,
+                    maintainers, packagedBy, config, trainingKwargs);
+            cachedHashCode = result;
+        }
+        return result;
+    }
+
+    @Override
+    public List<String> getTestInputs() {
+        return testInputs;
+    }
+
+    @Override
+    public List<String> getTestOutputs() {
+        return testOutputs;
+    }
+
+    @Override
+    public List<String> getSampleInputs() {
+        return sampleInputs;
+    }
+
+    @Override
+    public List<String> getSampleOutputs() {
+        return sampleOutputs;
+    }
+
+    @Override
+    public List<InputNodeSpecification> getInputs() {
+        return inputs;
+    }
+
+    @Override
+    public List<OutputNodeSpecification> getOutputs() {
+        return outputs;
+    }
+
+    @Override
+    public String getFormatVersion() {
+        return formatVersion;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public List<CitationSpecification> getCitations() {
+        return citations;
+    }
+
+    @Override
+    public Map<String, WeightsSpecification> getWeights() {
+        return weights;
+    }
+
+    @Override
+    public List<AuthorSpecification> getAuthors() {
+        return authors;
+    }
+
+    @Override
+    public String getDocumentation() {
+        return documentation;
+    }
+
+    @Override
+    public List<String> getTags() {
+        return tags;
+    }
+
+    @Override
+    public String getLicense() {
+        return license;
+    }
+
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String getGitRepo() {
+        return gitRepo;
+    }
+
+    @Override
+    public Map<String, String> getAttachments() {
+        return attachments;
+    }
+
+    @Override
+    public String getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String getExecutionModel() {
+        return executionModel;
+    }
+
+    @Deprecated
+    @Override
+    public Map<String, Object> getTrainingKwargs() {
+        return trainingKwargs;
+    }
+
+    @Deprecated
+    @Override
+    public String getTrainingSource() {
+        return trainingSource;
+    }
+
+    @Override
+    public Map<String, Object> getConfig() {
+        return config;
+    }
+
+    @Override
+    public String getDependencies() {
+        return dependencies;
+    }
+
+    @Override
+    public List<String> getCovers() {
+        return covers;
+    }
+
+    @Override
+    public String getHash() {
+        return hash;
+    }
+
+    @Override
+    public ParentSpecification getParent() {
+        return parent;
+    }
+
+    @Override
+    public List<BadgeSpecification> getBadges() {
+        return badges;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public List<AuthorSpecification> getMaintainers() {
+        return maintainers;
+    }
+
+    @Override
+    public String getRunMode() {
+        return runMode;
+    }
+
+    @Override
+    public String getIcon() {
+        return icon;
+    }
+
+    @Override
+    public List<String> getLinks() {
+        return links;
+    }
+
+    @Override
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    @Override
+    public List<AuthorSpecification> getPackagedBy() {
+        return packagedBy;
+    }
+
+    @Override
+    public void setSampleInputs(List<String> inNames) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setSampleOutputs(List<String> outNames) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setAuthors(List<AuthorSpecification> authors) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setTags(List<String> tags) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBadges(List<BadgeSpecification> badges) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setVersion(String version) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setType(String type) {
+        throw new UnsupportedOperationException();
+    }
+}
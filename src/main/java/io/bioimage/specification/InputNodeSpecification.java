@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification;
 
+import io.bioimage.specification.util.SpecificationUtil;
+
 import java.util.List;
 
 public interface InputNodeSpecification extends NodeSpecification {
@@ -43,4 +45,26 @@ public interface InputNodeSpecification extends NodeSpecification {
 	List<Integer> getShapeStep();
 
 	List<TransformationSpecification> getPreprocessing();
+
+	/**
+	 * @return the minimum shape as primitive array, see {@link #getHaloArray()}
+	 */
+	default int[] getShapeMinArray() {
+		return SpecificationUtil.toIntArray(getShapeMin());
+	}
+
+	/**
+	 * @return the shape step as primitive array, see {@link #getHaloArray()}
+	 */
+	default int[] getShapeStepArray() {
+		return SpecificationUtil.toIntArray(getShapeStep());
+	}
+
+	default void setShapeMinArray(int[] shapeMin) {
+		setShapeMin(SpecificationUtil.asList(shapeMin));
+	}
+
+	default void setShapeStepArray(int[] shapeStep) {
+		setShapeStep(SpecificationUtil.asList(shapeStep));
+	}
 }
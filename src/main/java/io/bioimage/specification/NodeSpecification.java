@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification;
 
+import io.bioimage.specification.util.SpecificationUtil;
+
 import java.util.List;
 import java.util.Map;
 
@@ -56,4 +58,24 @@ public interface NodeSpecification {
 	String getDescription();
 
 	void setDescription(String description);
+
+	/**
+	 * @return the parsed axes of this node, or null if the axes are not set
+	 * @throws IllegalArgumentException if the axes cannot be parsed, see {@link Axes#of(String)}
+	 */
+	default Axes getParsedAxes() {
+		return Axes.of(getAxes());
+	}
+
+	/**
+	 * @return the halo as primitive array, or null if it is not set or contains values which are not numbers.
+	 * Implementations may return their internal array, it must not be modified.
+	 */
+	default int[] getHaloArray() {
+		return SpecificationUtil.toIntArray(getHalo());
+	}
+
+	default void setHaloArray(int[] halo) {
+		setHalo(SpecificationUtil.asList(halo));
+	}
 }
@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification;
 
+import io.bioimage.specification.util.SpecificationUtil;
+
 import java.util.List;
 
 public interface OutputNodeSpecification extends NodeSpecification {
@@ -47,4 +49,26 @@ public interface OutputNodeSpecification extends NodeSpecification {
 	List<Integer> getShapeOffset();
 
 	List<TransformationSpecification> getPostprocessing();
+
+	/**
+	 * @return the shape scale as primitive array, see {@link #getHaloArray()}
+	 */
+	default double[] getShapeScaleArray() {
+		return SpecificationUtil.toDoubleArray(getShapeScale());
+	}
+
+	/**
+	 * @return the shape offset as primitive array, see {@link #getHaloArray()}
+	 */
+	default int[] getShapeOffsetArray() {
+		return SpecificationUtil.toIntArray(getShapeOffset());
+	}
+
+	default void setShapeScaleArray(double[] shapeScale) {
+		setShapeScale(SpecificationUtil.asList(shapeScale));
+	}
+
+	default void setShapeOffsetArray(int[] shapeOffset) {
+		setShapeOffset(SpecificationUtil.asList(shapeOffset));
+	}
 }
@@ -0,0 +1,218 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes characters as UTF-8 directly into a byte buffer of the caller or into a byte channel.
+ * The encoder and the buffers are reused per thread, writing a specification allocates no char or byte arrays.
+ * Unpaired surrogates are replaced, like {@link java.io.OutputStreamWriter} does. Channels must be in blocking mode.
+ */
+class ByteBufferWriter extends Writer {
+
+    private final static int bufferSize = 8192;
+    private final static ThreadLocal<ByteBufferWriter> writers = ThreadLocal.withInitial(ByteBufferWriter::new);
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(bufferSize);
+    // direct, so that channels do not copy it into a temporary direct buffer
+    private final ByteBuffer channelBuffer = ByteBuffer.allocateDirect(bufferSize);
+    private ByteBuffer target;
+    private WritableByteChannel channel;
+    private long written;
+    private boolean inUse;
+
+    interface Output {
+        void write(Writer writer) throws IOException;
+    }
+
+    private ByteBufferWriter() {
+    }
+
+    /**
+     * @return the number of bytes written, the position of the buffer is advanced by it
+     * @throws BufferOverflowException if the remaining buffer is too small, the position of the buffer is then unchanged
+     */
+    static int write(ByteBuffer buffer, Output output) throws IOException {
+        int start = buffer.position();
+        ByteBufferWriter writer = open(buffer);
+        boolean success = false;
+        try {
+            output.write(writer);
+            int written = (int) writer.finish();
+            success = true;
+            return written;
+        } finally {
+            writer.release();
+            if (!success) buffer.position(start);
+        }
+    }
+
+    /**
+     * @return the number of bytes written
+     */
+    static long write(WritableByteChannel channel, Output output) throws IOException {
+        ByteBufferWriter writer = open(channel);
+        try {
+            output.write(writer);
+            return writer.finish();
+        } finally {
+            writer.release();
+        }
+    }
+
+    private static ByteBufferWriter open(ByteBuffer target) {
+        ByteBufferWriter writer = acquire();
+        writer.target = target;
+        // the count is the difference of the final and the start position
+        writer.written = -target.position();
+        return writer;
+    }
+
+    private static ByteBufferWriter open(WritableByteChannel channel) {
+        ByteBufferWriter writer = acquire();
+        writer.channel = channel;
+        writer.target = writer.channelBuffer;
+        return writer;
+    }
+
+    private static ByteBufferWriter acquire() {
+        ByteBufferWriter writer = writers.get();
+        if (writer.inUse) writer = new ByteBufferWriter();
+        writer.inUse = true;
+        return writer;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        if (!chars.hasRemaining()) encode(false);
+        chars.put((char) c);
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!chars.hasRemaining()) encode(false);
+            int count = Math.min(length, chars.remaining());
+            chars.put(buffer, offset, count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void write(String string, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!chars.hasRemaining()) encode(false);
+            int count = Math.min(length, chars.remaining());
+            string.getChars(offset, offset + count, chars.array(), chars.arrayOffset() + chars.position());
+            chars.position(chars.position() + count);
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        encode(false);
+        if (channel != null) drain();
+    }
+
+    /**
+     * Use {@link #finish()} to complete the output.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Encodes the remaining characters.
+     * @return the number of bytes written since the writer was opened
+     */
+    private long finish() throws IOException {
+        encode(true);
+        while (true) {
+            CoderResult result = encoder.flush(target);
+            if (result.isUnderflow()) break;
+            overflow();
+        }
+        if (channel != null) drain();
+        return channel != null ? written : written + target.position();
+    }
+
+    /**
+     * Makes the writer available for reuse by the current thread, also after an error.
+     */
+    private void release() {
+        encoder.reset();
+        chars.clear();
+        channelBuffer.clear();
+        target = null;
+        channel = null;
+        written = 0;
+        inUse = false;
+    }
+
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, target, endOfInput);
+            if (result.isUnderflow()) break;
+            if (result.isOverflow()) overflow();
+            else result.throwException();
+        }
+        // keeps a high surrogate whose low surrogate was not written yet
+        chars.compact();
+    }
+
+    private void overflow() throws IOException {
+        if (channel == null) throw new BufferOverflowException();
+        drain();
+    }
+
+    private void drain() throws IOException {
+        channelBuffer.flip();
+        while (channelBuffer.hasRemaining()) {
+            written += channel.write(channelBuffer);
+        }
+        channelBuffer.clear();
+    }
+}
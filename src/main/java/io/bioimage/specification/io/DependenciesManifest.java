@@ -0,0 +1,98 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dependencies file written next to a specification, listing the class path and module path of the running JVM.
+ * Both are taken from the system properties instead of the system class loader, which is no URLClassLoader since
+ * Java 9. The content is computed once per JVM and includes a hash of the listed paths. An existing file is only
+ * rewritten if its content differs.
+ */
+class DependenciesManifest {
+
+    private final static String idClassPath = "classPath";
+    private final static String idModulePath = "modulePath";
+    private final static String idSha256 = "sha256";
+
+    private static class Holder {
+        private final static byte[] content = createContent(System.getProperty("java.class.path"),
+                System.getProperty("jdk.module.path"));
+    }
+
+    static void write(Path file) throws IOException {
+        try (SpecificationWriteBatch batch = new SpecificationWriteBatch(Durability.NONE)) {
+            batch.writeIfChanged(file, Holder.content);
+        }
+    }
+
+    static byte[] createContent(String classPath, String modulePath) {
+        List<String> classPathEntries = split(classPath);
+        List<String> modulePathEntries = split(modulePath);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(idClassPath, classPathEntries);
+        if (!modulePathEntries.isEmpty()) data.put(idModulePath, modulePathEntries);
+        data.put(idSha256, hash(classPathEntries, modulePathEntries));
+        return SpecificationCodec.getDefault().dump(data).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> split(String path) {
+        if (path == null || path.isEmpty()) return Collections.emptyList();
+        List<String> entries = new ArrayList<>();
+        for (String entry : path.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static String hash(List<String> classPath, List<String> modulePath) {
+        MessageDigest digest = SpecificationWriter.sha256();
+        for (String entry : classPath) {
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        // separates the module path from the class path
+        digest.update((byte) 0);
+        for (String entry : modulePath) {
+            digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        }
+        return SpecificationWriter.toHex(digest.digest());
+    }
+}
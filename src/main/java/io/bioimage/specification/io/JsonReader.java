@@ -0,0 +1,338 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming JSON tokenizer. Values are built the same way {@link org.yaml.snakeyaml.Yaml#load} builds them,
+ * so that the result can be handed to the {@code SpecificationReaderWriterV*} readers:
+ * objects as {@link LinkedHashMap}, arrays as {@link ArrayList}, integers as {@link Integer}, {@link Long} or
+ * {@link BigInteger} depending on their size and all other numbers as {@link Double}.
+ */
+class JsonReader {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private long offset;
+
+    private final StringBuilder text = new StringBuilder();
+    private Token peeked;
+    // for each open object or array: whether the next element is the first one
+    private final List<Boolean> first = new ArrayList<>();
+    private final List<Boolean> inObject = new ArrayList<>();
+    // whether a name was read and its value is expected next
+    private boolean expectValue;
+    private boolean started;
+
+    JsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the next token without consuming it
+     */
+    Token peek() throws IOException {
+        if (peeked == null) peeked = readToken();
+        return peeked;
+    }
+
+    /**
+     * Consumes the next token, for {@link Token#NAME}, {@link Token#STRING} and {@link Token#NUMBER} its text
+     * is available through {@link #text()} until the next token is read.
+     */
+    Token next() throws IOException {
+        Token token = peek();
+        peeked = null;
+        return token;
+    }
+
+    String text() {
+        return text.toString();
+    }
+
+    /**
+     * Reads the next complete value.
+     */
+    Object readValue() throws IOException {
+        Token token = next();
+        switch (token) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                while (peek() != Token.END_OBJECT) {
+                    expect(Token.NAME);
+                    String name = text();
+                    map.put(name, readValue());
+                }
+                next();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                while (peek() != Token.END_ARRAY) {
+                    list.add(readValue());
+                }
+                next();
+                return list;
+            case STRING:
+                return text();
+            case NUMBER:
+                return toNumber(text());
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case NULL:
+                return null;
+            default:
+                throw error("Unexpected " + token);
+        }
+    }
+
+    /**
+     * Skips the next complete value without building it.
+     */
+    void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (next()) {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    depth++;
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw error("Unexpected end of document");
+                default:
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    void expect(Token expected) throws IOException {
+        Token token = next();
+        if (token != expected) throw error("Expected " + expected + " but found " + token);
+    }
+
+    private Token readToken() throws IOException {
+        int depth = first.size();
+        int c = skipWhitespace();
+        if (depth == 0) {
+            if (c < 0) return Token.END_DOCUMENT;
+            if (started) throw error("Unexpected content after end of document");
+            started = true;
+            return readValueToken(c);
+        }
+        boolean object = inObject.get(depth - 1);
+        if (object && c == '}' || !object && c == ']') {
+            first.remove(depth - 1);
+            inObject.remove(depth - 1);
+            if (expectValue && object) throw error("Expected value");
+            expectValue = false;
+            return object ? Token.END_OBJECT : Token.END_ARRAY;
+        }
+        if (object && expectValue) {
+            if (c != ':') throw error("Expected ':'");
+            expectValue = false;
+            return readValueToken(skipWhitespace());
+        }
+        if (!first.get(depth - 1)) {
+            if (c != ',') throw error("Expected ',' or '" + (object ? '}' : ']') + "'");
+            c = skipWhitespace();
+        }
+        first.set(depth - 1, false);
+        if (object) {
+            if (c != '"') throw error("Expected name");
+            readString();
+            expectValue = true;
+            return Token.NAME;
+        }
+        return readValueToken(c);
+    }
+
+    private Token readValueToken(int c) throws IOException {
+        switch (c) {
+            case '{':
+                first.add(true);
+                inObject.add(true);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                first.add(true);
+                inObject.add(false);
+                return Token.BEGIN_ARRAY;
+            case '"':
+                readString();
+                return Token.STRING;
+            case 't':
+                readLiteral("rue");
+                return Token.TRUE;
+            case 'f':
+                readLiteral("alse");
+                return Token.FALSE;
+            case 'n':
+                readLiteral("ull");
+                return Token.NULL;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    readNumber(c);
+                    return Token.NUMBER;
+                }
+                throw error(c < 0 ? "Unexpected end of document" : "Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position];
+                if (c == '"' || c == '\\') break;
+                if (c < 0x20) throw error("Control character in string");
+                position++;
+            }
+            text.append(buffer, start, position - start);
+            if (position == limit) {
+                if (!fill()) throw error("Unterminated string");
+                continue;
+            }
+            char c = buffer[position++];
+            if (c == '"') return;
+            text.append(readEscape());
+        }
+    }
+
+    private char readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) throw error("Invalid unicode escape");
+                    value = value * 16 + digit;
+                }
+                return (char) value;
+            default:
+                throw error("Invalid escape");
+        }
+    }
+
+    private void readNumber(int c) throws IOException {
+        text.setLength(0);
+        text.append((char) c);
+        while (true) {
+            if (position == limit && !fill()) break;
+            char next = buffer[position];
+            if ((next >= '0' && next <= '9') || next == '.' || next == 'e' || next == 'E' || next == '+' || next == '-') {
+                text.append(next);
+                position++;
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) throw error("Invalid literal");
+        }
+    }
+
+    private Object toNumber(String number) throws IOException {
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                if (number.length() < 19) {
+                    long value = Long.parseLong(number);
+                    if ((int) value == value) return (int) value;
+                    return value;
+                }
+                BigInteger value = new BigInteger(number);
+                return value.bitLength() < 64 ? (Object) value.longValue() : value;
+            }
+            return Double.parseDouble(number);
+        } catch (NumberFormatException e) {
+            throw error("Invalid number " + number);
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = 0;
+        int read = reader.read(buffer);
+        if (read <= 0) return false;
+        limit = read;
+        return true;
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at character " + (offset + position));
+    }
+}
@@ -0,0 +1,238 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.AuthorSpecification;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * Writes the structure built by the {@code SpecificationReaderWriterV*} writers as JSON.
+ * Non-finite numbers, which JSON cannot represent, are written as the strings {@code inf}, {@code -inf} and {@code nan}.
+ * <p>
+ * The {@link #canonical(Writer) canonical} form has no whitespace, sorted keys, no entries with null values
+ * and one representation per numeric value.
+ */
+class JsonWriter {
+
+    private final Writer writer;
+    private final String indent;
+    private final boolean canonical;
+    private int depth;
+
+    /**
+     * @param indent the indentation of nested values, null to write everything on one line
+     */
+    JsonWriter(Writer writer, String indent) {
+        this(writer, indent, false);
+    }
+
+    private JsonWriter(Writer writer, String indent, boolean canonical) {
+        this.writer = writer;
+        this.indent = indent;
+        this.canonical = canonical;
+    }
+
+    static JsonWriter canonical(Writer writer) {
+        return new JsonWriter(writer, null, true);
+    }
+
+    void write(Object value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (canonical && value instanceof Number) {
+            writeCanonicalNumber((Number) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writer.write(value.toString());
+        } else if (value instanceof Date) {
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            writeString(format.format((Date) value));
+        } else if (value instanceof AuthorSpecification) {
+            write(toMap((AuthorSpecification) value));
+        } else if (value instanceof Map) {
+            writeObject((Map<?, ?>) value);
+        } else if (value instanceof List) {
+            writeArray((List<?>) value);
+        } else {
+            throw new IOException("Cannot write value of type " + value.getClass().getName() + " as JSON");
+        }
+    }
+
+    /**
+     * Authors are kept as objects by the writers of format versions 0.1 and 0.2, they are written with the
+     * property names the YAML writer uses for them.
+     */
+    static Map<String, Object> toMap(AuthorSpecification author) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (author.getAffiliation() != null) map.put("affiliation", author.getAffiliation());
+        if (author.getEmail() != null) map.put("email", author.getEmail());
+        if (author.getGithubUser() != null) map.put("githubUser", author.getGithubUser());
+        if (author.getName() != null) map.put("name", author.getName());
+        if (author.getOrcId() != null) map.put("orcId", author.getOrcId());
+        return map;
+    }
+
+    private void writeObject(Map<?, ?> map) throws IOException {
+        if (canonical) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getValue() != null) sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            map = sorted;
+        }
+        writer.write('{');
+        depth++;
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) writer.write(',');
+            first = false;
+            newLine();
+            writeString(String.valueOf(entry.getKey()));
+            writer.write(indent == null ? ":" : ": ");
+            write(entry.getValue());
+        }
+        depth--;
+        if (!first) newLine();
+        writer.write('}');
+    }
+
+    private void writeArray(List<?> list) throws IOException {
+        writer.write('[');
+        depth++;
+        boolean first = true;
+        for (Object element : list) {
+            if (!first) writer.write(',');
+            first = false;
+            newLine();
+            write(element);
+        }
+        depth--;
+        if (!first) newLine();
+        writer.write(']');
+    }
+
+    private void newLine() throws IOException {
+        if (indent == null) return;
+        writer.write('\n');
+        for (int i = 0; i < depth; i++) {
+            writer.write(indent);
+        }
+    }
+
+    private void writeDouble(double value) throws IOException {
+        if (Double.isNaN(value)) {
+            writeString("nan");
+        } else if (Double.isInfinite(value)) {
+            writeString(value > 0 ? "inf" : "-inf");
+        } else {
+            writer.write(Double.toString(value));
+        }
+    }
+
+    /**
+     * Writes integral values without fraction and others in plain notation with the shortest digits of their
+     * type, so that e.g. {@code 1}, {@code 1.0} and {@code 1.0f} are written the same way.
+     */
+    private void writeCanonicalNumber(Number value) throws IOException {
+        BigDecimal decimal;
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger) {
+            decimal = new BigDecimal(value.toString());
+        } else if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else {
+            double doubleValue = value.doubleValue();
+            if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+                writeDouble(doubleValue);
+                return;
+            }
+            decimal = new BigDecimal(value instanceof Float ? Float.toString(value.floatValue()) : Double.toString(doubleValue));
+        }
+        decimal = decimal.stripTrailingZeros();
+        if (decimal.signum() == 0) {
+            writer.write('0');
+            return;
+        }
+        int exponent = decimal.precision() - decimal.scale() - 1;
+        if (exponent >= -7 && exponent < 21) {
+            writer.write(decimal.toPlainString());
+        } else {
+            writer.write(decimal.toString().replace("E+", "e").replace('E', 'e'));
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape;
+            switch (c) {
+                case '"':
+                    escape = "\\\"";
+                    break;
+                case '\\':
+                    escape = "\\\\";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case '\t':
+                    escape = "\\t";
+                    break;
+                default:
+                    if (c >= 0x20) continue;
+                    escape = String.format("\\u%04x", (int) c);
+            }
+            writer.write(value, start, i - start);
+            writer.write(escape);
+            start = i + 1;
+        }
+        writer.write(value, start, value.length() - start);
+        writer.write('"');
+    }
+}
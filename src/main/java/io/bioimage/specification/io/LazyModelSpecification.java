@@ -0,0 +1,339 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.InputNodeSpecification;
+import io.bioimage.specification.OutputNodeSpecification;
+import io.bioimage.specification.WeightsSpecification;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Model specification which keeps the raw rdf.yaml content and only parses the expensive sections
+ * when they are first accessed: input and output nodes, weights, config and documentation.
+ * All other properties are read when the specification is created.
+ * Sections are loaded thread-safely, each of them at most once. Modifying a section loads it first.
+ */
+public class LazyModelSpecification extends DefaultModelSpecification {
+
+    // keys of the document read by each section, including the legacy keys of format versions 0.1 and 0.2
+    private final static Set<String> nodeKeys = keys("inputs", "outputs", "prediction", "source");
+    private final static Set<String> weightKeys = keys("weights");
+    private final static Set<String> configKeys = keys("config", "training");
+    private final static Set<String> documentationKeys = keys("documentation");
+    private final static Set<String> lazyKeys = keys("inputs", "outputs", "prediction", "weights", "config", "training", "documentation");
+
+    private byte[] content;
+    private volatile boolean nodesLoaded;
+    private volatile boolean weightsLoaded;
+    private volatile boolean configLoaded;
+    private volatile boolean documentationLoaded;
+
+    private LazyModelSpecification(byte[] content) {
+        this.content = content;
+    }
+
+    /**
+     * @throws IOException if the content cannot be parsed or its format version is not supported
+     */
+    public static LazyModelSpecification read(byte[] content) throws IOException {
+        LazyModelSpecification specification = new LazyModelSpecification(content);
+        // the readers also call the setters of the lazy sections, let them pass through while reading the rest
+        specification.setLoaded(true);
+        boolean read = specification.readInto(specification, key -> !lazyKeys.contains(key));
+        specification.setLoaded(false);
+        if (!read) {
+            throw new IOException("Unsupported model specification");
+        }
+        return specification;
+    }
+
+    public static LazyModelSpecification read(Path modelSpecificationPath) throws IOException {
+        return read(Files.readAllBytes(modelSpecificationPath));
+    }
+
+    public static LazyModelSpecification read(InputStream stream) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] bytes = new byte[8192];
+        int read;
+        while ((read = stream.read(bytes)) >= 0) {
+            buffer.write(bytes, 0, read);
+        }
+        return read(buffer.toByteArray());
+    }
+
+    public boolean isNodesLoaded() {
+        return nodesLoaded;
+    }
+
+    public boolean isWeightsLoaded() {
+        return weightsLoaded;
+    }
+
+    public boolean isConfigLoaded() {
+        return configLoaded;
+    }
+
+    public boolean isDocumentationLoaded() {
+        return documentationLoaded;
+    }
+
+    @Override
+    public List<InputNodeSpecification> getInputNodes() {
+        loadNodes();
+        return super.getInputNodes();
+    }
+
+    @Override
+    public void setInputNodes(List<InputNodeSpecification> inputNodes) {
+        loadNodes();
+        super.setInputNodes(inputNodes);
+    }
+
+    @Override
+    public List<OutputNodeSpecification> getOutputNodes() {
+        loadNodes();
+        return super.getOutputNodes();
+    }
+
+    @Override
+    public void setOutputNodes(List<OutputNodeSpecification> outputNodes) {
+        loadNodes();
+        super.setOutputNodes(outputNodes);
+    }
+
+    @Override
+    public void addInputNode(InputNodeSpecification inputNode) {
+        loadNodes();
+        super.addInputNode(inputNode);
+    }
+
+    @Override
+    public void addOutputNode(OutputNodeSpecification outputNode) {
+        loadNodes();
+        super.addOutputNode(outputNode);
+    }
+
+    @Override
+    public List<InputNodeSpecification> getInputs() {
+        loadNodes();
+        return super.getInputs();
+    }
+
+    @Override
+    public void setInputs(List<InputNodeSpecification> inputs) {
+        loadNodes();
+        super.setInputs(inputs);
+    }
+
+    @Override
+    public List<OutputNodeSpecification> getOutputs() {
+        loadNodes();
+        return super.getOutputs();
+    }
+
+    @Override
+    public void setOutputs(List<OutputNodeSpecification> outputs) {
+        loadNodes();
+        super.setOutputs(outputs);
+    }
+
+    @Override
+    public Map<String, WeightsSpecification> getWeights() {
+        loadWeights();
+        return super.getWeights();
+    }
+
+    @Override
+    public void setWeights(Map<String, WeightsSpecification> weights) {
+        loadWeights();
+        super.setWeights(weights);
+    }
+
+    @Override
+    public void addWeights(String name, WeightsSpecification weights) {
+        loadWeights();
+        super.addWeights(name, weights);
+    }
+
+    @Override
+    public Map<String, Object> getConfig() {
+        loadConfig();
+        return super.getConfig();
+    }
+
+    @Override
+    public void setConfig(Map<String, Object> config) {
+        loadConfig();
+        super.setConfig(config);
+    }
+
+    @Override
+    public String getDocumentation() {
+        loadDocumentation();
+        return super.getDocumentation();
+    }
+
+    @Override
+    public void setDocumentation(String documentation) {
+        loadDocumentation();
+        super.setDocumentation(documentation);
+    }
+
+    @Override
+    public int hashCode() {
+        loadAll();
+        return super.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LazyModelSpecification)) return false;
+        loadAll();
+        ((LazyModelSpecification) o).loadAll();
+        return super.equals(o);
+    }
+
+    /**
+     * Also discards the raw content, the sections which were not loaded yet are empty afterwards.
+     */
+    @Override
+    public synchronized void reset() {
+        setLoaded(true);
+        content = null;
+        super.reset();
+    }
+
+    private void loadAll() {
+        loadNodes();
+        loadWeights();
+        loadConfig();
+        loadDocumentation();
+    }
+
+    private void loadNodes() {
+        if (nodesLoaded) return;
+        synchronized (this) {
+            if (nodesLoaded) return;
+            DefaultModelSpecification section = readSection(nodeKeys);
+            super.setInputNodes(section.getInputNodes());
+            super.setOutputNodes(section.getOutputNodes());
+            // the volatile write publishes the section to readers which skip the lock
+            nodesLoaded = true;
+            releaseContent();
+        }
+    }
+
+    private void loadWeights() {
+        if (weightsLoaded) return;
+        synchronized (this) {
+            if (weightsLoaded) return;
+            DefaultModelSpecification section = readSection(weightKeys);
+            super.setWeights(new LinkedHashMap<>(section.getWeights()));
+            weightsLoaded = true;
+            releaseContent();
+        }
+    }
+
+    private void loadConfig() {
+        if (configLoaded) return;
+        synchronized (this) {
+            if (configLoaded) return;
+            DefaultModelSpecification section = readSection(configKeys);
+            super.setConfig(section.getConfig());
+            configLoaded = true;
+            releaseContent();
+        }
+    }
+
+    private void loadDocumentation() {
+        if (documentationLoaded) return;
+        synchronized (this) {
+            if (documentationLoaded) return;
+            DefaultModelSpecification section = readSection(documentationKeys);
+            super.setDocumentation(section.getDocumentation());
+            documentationLoaded = true;
+            releaseContent();
+        }
+    }
+
+    private void setLoaded(boolean loaded) {
+        nodesLoaded = loaded;
+        weightsLoaded = loaded;
+        configLoaded = loaded;
+        documentationLoaded = loaded;
+    }
+
+    private DefaultModelSpecification readSection(Set<String> keys) {
+        DefaultModelSpecification section = new DefaultModelSpecification();
+        try {
+            readInto(section, keys::contains);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return section;
+    }
+
+    private boolean readInto(DefaultModelSpecification specification, Predicate<String> keys) throws IOException {
+        try {
+            return SpecificationCodec.getDefault().readStreaming(new UnicodeReader(new ByteArrayInputStream(content)), specification, keys);
+        } catch (SpecificationEventReader.UnsupportedDocumentException e) {
+            return SpecificationReader.read(new ByteArrayInputStream(content), specification);
+        }
+    }
+
+    /**
+     * The raw content is only needed until every section was loaded.
+     */
+    private void releaseContent() {
+        if (nodesLoaded && weightsLoaded && configLoaded && documentationLoaded) {
+            content = null;
+        }
+    }
+
+    private static Set<String> keys(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+}
@@ -0,0 +1,199 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.WeightsSpecification;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static io.bioimage.specification.io.SpecificationWriter.modelFileName;
+
+/**
+ * A zipped model which is opened once and kept open until {@link #close()} is called.
+ * The central directory is read when the package is opened, the specification is parsed on first access
+ * and all other entries (weights, test tensors, ...) are read directly from the archive without extracting them.
+ * A package can be used by multiple threads at the same time.
+ */
+public class ModelPackage implements Closeable {
+
+    private final File file;
+    private final ZipFile zipFile;
+    private DefaultModelSpecification specification;
+
+    private ModelPackage(File file) throws IOException {
+        this.file = file;
+        this.zipFile = new ZipFile(file);
+    }
+
+    public static ModelPackage open(File zippedModel) throws IOException {
+        return new ModelPackage(zippedModel);
+    }
+
+    public static ModelPackage open(Path zippedModel) throws IOException {
+        return open(zippedModel.toFile());
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the specification of this package, parsed from its rdf.yaml on first call
+     * @throws IOException if the package has no rdf.yaml or its format version is not supported
+     */
+    public synchronized DefaultModelSpecification getSpecification() throws IOException {
+        if (specification == null) {
+            DefaultModelSpecification spec = new DefaultModelSpecification();
+            try (InputStream stream = openEntry(modelFileName)) {
+                if (!SpecificationReader.read(stream, spec)) {
+                    throw new IOException("Unsupported model specification in " + file);
+                }
+            }
+            specification = spec;
+        }
+        return specification;
+    }
+
+    public List<String> getEntryNames() {
+        List<String> names = new ArrayList<>(zipFile.size());
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        while (entries.hasMoreElements()) {
+            names.add(entries.nextElement().getName());
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    public boolean contains(String name) {
+        return zipFile.getEntry(entryName(name)) != null;
+    }
+
+    /**
+     * @return the uncompressed size of the entry or -1 if it is unknown
+     */
+    public long getSize(String name) throws IOException {
+        return getEntry(name).getSize();
+    }
+
+    public InputStream openEntry(String name) throws IOException {
+        return zipFile.getInputStream(getEntry(name));
+    }
+
+    /**
+     * Reads the complete entry into a buffer of its uncompressed size.
+     * Use {@link #openEntry(String)} for entries that are too big to be kept in memory.
+     */
+    public ByteBuffer readEntry(String name) throws IOException {
+        ZipEntry entry = getEntry(name);
+        long size = entry.getSize();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Entry " + name + " in " + file + " is too big to be read into a buffer");
+        }
+        try (InputStream stream = zipFile.getInputStream(entry)) {
+            if (size < 0) {
+                return readUnknownSize(stream);
+            }
+            byte[] bytes = new byte[(int) size];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = stream.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of entry " + name + " in " + file);
+                }
+                offset += read;
+            }
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * @param format the weight format, e.g. {@code tensorflow_saved_model_bundle}
+     */
+    public InputStream openWeights(String format) throws IOException {
+        WeightsSpecification weights = getSpecification().getWeights().get(format);
+        if (weights == null) {
+            throw new FileNotFoundException("No " + format + " weights in " + file);
+        }
+        return openEntry(weights.getSource());
+    }
+
+    public InputStream openTestInput(int index) throws IOException {
+        return openEntry(getSpecification().getTestInputs().get(index));
+    }
+
+    public InputStream openTestOutput(int index) throws IOException {
+        return openEntry(getSpecification().getTestOutputs().get(index));
+    }
+
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+
+    private ZipEntry getEntry(String name) throws FileNotFoundException {
+        ZipEntry entry = zipFile.getEntry(entryName(name));
+        if (entry == null) {
+            throw new FileNotFoundException("No entry " + name + " in " + file);
+        }
+        return entry;
+    }
+
+    static String entryName(String name) {
+        while (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        return name;
+    }
+
+    private static ByteBuffer readUnknownSize(InputStream stream) throws IOException {
+        byte[] bytes = new byte[8192];
+        int length = 0;
+        int read;
+        while ((read = stream.read(bytes, length, bytes.length - length)) >= 0) {
+            length += read;
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+        }
+        return ByteBuffer.wrap(bytes, 0, length).slice().asReadOnlyBuffer();
+    }
+}
@@ -0,0 +1,546 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.ModelSpecification;
+import io.bioimage.specification.WeightsSpecification;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static io.bioimage.specification.io.SpecificationWriter.modelFileName;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes a complete zipped model: the rdf.yaml generated from the specification and all local files it references,
+ * resolved against the model directory. Weights and test tensors must exist, other references (covers, sample tensors,
+ * attachments, ...) are added if they are files in the model directory.
+ * <p>
+ * Entries are split into blocks which are deflated in parallel. Each block is primed with the end of the previous block
+ * and ends on a byte boundary, so the compressed blocks are concatenated in order into one deflate stream per entry and
+ * the archive is written in a single pass. Files which are compressed already (zip, gz, png, ...) are stored.
+ * Archives and entries larger than 4 GB are written in the Zip64 format.
+ */
+public class ModelPackageWriter {
+
+    private final static int blockSize = 1 << 20;
+    private final static int dictionarySize = 1 << 15;
+    // entries of this size get a Zip64 local header, leaving room for the deflate overhead of incompressible data
+    private final static long zip64EntrySize = 0xF0000000L;
+    private final static long maxInt = 0xFFFFFFFFL;
+    private final static int maxShort = 0xFFFF;
+
+    private final static Set<String> compressedExtensions = new HashSet<>(Arrays.asList(
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "zst", "png", "jpg", "jpeg", "gif", "webp", "pt", "pth"));
+
+    private static class CompressionExecutorHolder {
+        private final static ExecutorService executor = createCompressionExecutor();
+    }
+
+    private final Executor executor;
+    private final int level;
+    private final int maxPendingBlocks;
+
+    /**
+     * Compresses on a pool of the package writers, separate from the pool of the asynchronous reads,
+     * so that writing a package from a task of that pool cannot wait for blocks queued behind itself.
+     */
+    public ModelPackageWriter() {
+        this(CompressionExecutorHolder.executor, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param executor runs the compression of the blocks, must not be a bounded pool the writer itself runs on
+     * @param level the {@link Deflater} compression level
+     */
+    public ModelPackageWriter(Executor executor, int level) {
+        this.executor = executor;
+        this.level = level;
+        this.maxPendingBlocks = 2 * Runtime.getRuntime().availableProcessors() + 2;
+    }
+
+    public void write(ModelSpecification specification, Path modelDirectory, Path zipFile) throws IOException {
+        List<Entry> entries = collectEntries(specification, modelDirectory);
+        // an existing package is only replaced once the new one is complete
+        Path temporary = SpecificationWriteBatch.temporaryFile(zipFile);
+        boolean success = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, CREATE_NEW, WRITE)) {
+                new Assembler(channel).write(entries);
+            }
+            SpecificationWriteBatch.replace(temporary, zipFile);
+            success = true;
+        } finally {
+            if (!success) Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static ExecutorService createCompressionExecutor() {
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "bioimage-io-compression-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static List<Entry> collectEntries(ModelSpecification specification, Path modelDirectory) throws IOException {
+        Path directory = modelDirectory.toAbsolutePath().normalize();
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        ByteArrayOutputStream rdf = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(rdf, StandardCharsets.UTF_8)) {
+            SpecificationCodec.getDefault().writeStreaming(specification, writer);
+        }
+        entries.put(modelFileName, new Entry(modelFileName, rdf.toByteArray()));
+        if (specification.getWeights() != null) {
+            for (WeightsSpecification weights : specification.getWeights().values()) {
+                addFile(entries, directory, weights.getSource(), true);
+                addFiles(entries, directory, weights.getAttachments() == null ? null : weights.getAttachments().values(), false);
+            }
+        }
+        addFiles(entries, directory, specification.getTestInputs(), true);
+        addFiles(entries, directory, specification.getTestOutputs(), true);
+        addFiles(entries, directory, specification.getSampleInputs(), false);
+        addFiles(entries, directory, specification.getSampleOutputs(), false);
+        addFiles(entries, directory, specification.getCovers(), false);
+        addFiles(entries, directory, specification.getAttachments() == null ? null : specification.getAttachments().values(), false);
+        addFile(entries, directory, specification.getDocumentation(), false);
+        addFile(entries, directory, specification.getIcon(), false);
+        addFile(entries, directory, dependencyFile(specification.getDependencies()), false);
+        return new ArrayList<>(entries.values());
+    }
+
+    private static void addFiles(Map<String, Entry> entries, Path directory, Iterable<String> references, boolean required) throws IOException {
+        if (references == null) return;
+        for (String reference : references) {
+            addFile(entries, directory, reference, required);
+        }
+    }
+
+    private static void addFile(Map<String, Entry> entries, Path directory, String reference, boolean required) throws IOException {
+        if (reference == null || reference.contains("://")) return;
+        String name = ModelPackage.entryName(reference.replace('\\', '/'));
+        if (entries.containsKey(name)) return;
+        Path file = directory.resolve(name).normalize();
+        if (file.startsWith(directory) && Files.isRegularFile(file)) {
+            entries.put(name, new Entry(name, file));
+        } else if (required) {
+            throw new FileNotFoundException("Cannot package " + reference + ", it is not a file in " + directory);
+        }
+    }
+
+    /**
+     * @param dependencies for example {@code conda:./environment.yaml}
+     */
+    private static String dependencyFile(String dependencies) {
+        if (dependencies == null) return null;
+        int separator = dependencies.indexOf(':');
+        return separator < 0 ? dependencies : dependencies.substring(separator + 1);
+    }
+
+    private static boolean isCompressed(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && compressedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static class Entry {
+        private final String name;
+        private final byte[] nameBytes;
+        private final Path file;
+        private final byte[] content;
+        private final boolean stored;
+        private long offset;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private boolean zip64Header;
+        private int dosTime;
+
+        private Entry(String name, Path file) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.file = file;
+            this.content = null;
+            this.stored = isCompressed(name);
+        }
+
+        private Entry(String name, byte[] content) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.file = null;
+            this.content = content;
+            this.stored = false;
+        }
+
+        private InputStream open() throws IOException {
+            if (content != null) {
+                zip64Header = false;
+                dosTime = dosTime(System.currentTimeMillis());
+                return new ByteArrayInputStream(content);
+            }
+            zip64Header = Files.size(file) >= zip64EntrySize;
+            dosTime = dosTime(Files.getLastModifiedTime(file).toMillis());
+            return Files.newInputStream(file);
+        }
+
+        private boolean isZip64() {
+            return size >= maxInt || compressedSize >= maxInt || offset >= maxInt;
+        }
+    }
+
+    /**
+     * A piece of the archive which is written once all pieces before it are written.
+     */
+    private interface Part {
+        void write() throws IOException;
+    }
+
+    /**
+     * Reads the entries on the calling thread, deflates their blocks on the executor and appends the results to the
+     * archive in order. At most {@link #maxPendingBlocks} blocks are in memory at the same time.
+     */
+    private class Assembler {
+        private final FileChannel channel;
+        private final ArrayDeque<Future<Part>> pending = new ArrayDeque<>();
+        private long position;
+        private Entry current;
+
+        private Assembler(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void write(List<Entry> entries) throws IOException {
+            try {
+                for (Entry entry : entries) {
+                    readEntry(entry);
+                }
+                drain(0);
+                writeCentralDirectory(entries);
+            } finally {
+                for (Future<Part> future : pending) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private void readEntry(Entry entry) throws IOException {
+            CRC32 crc = new CRC32();
+            long size = 0;
+            try (InputStream stream = entry.open()) {
+                enqueue(() -> startEntry(entry));
+                byte[] previous = null;
+                byte[] block = new byte[blockSize];
+                int length = readFully(stream, block);
+                while (true) {
+                    byte[] next = null;
+                    int nextLength = 0;
+                    if (length == blockSize) {
+                        next = new byte[blockSize];
+                        nextLength = readFully(stream, next);
+                    }
+                    boolean last = nextLength == 0;
+                    crc.update(block, 0, length);
+                    size += length;
+                    enqueueBlock(entry, block, length, previous, last);
+                    if (last) break;
+                    previous = block;
+                    block = next;
+                    length = nextLength;
+                }
+            }
+            long crcValue = crc.getValue();
+            long sizeValue = size;
+            enqueue(() -> endEntry(entry, crcValue, sizeValue));
+        }
+
+        private void enqueueBlock(Entry entry, byte[] block, int length, byte[] previous, boolean last) throws IOException {
+            if (entry.stored) {
+                if (length > 0) enqueue(() -> writeData(ByteBuffer.wrap(block, 0, length)));
+                return;
+            }
+            pending.add(CompletableFuture.supplyAsync(() -> {
+                ByteBuffer data = deflate(block, length, previous, last);
+                return () -> writeData(data);
+            }, executor));
+            drain(maxPendingBlocks);
+        }
+
+        private void enqueue(Part part) throws IOException {
+            pending.add(CompletableFuture.completedFuture(part));
+            drain(maxPendingBlocks);
+        }
+
+        private void drain(int maxPending) throws IOException {
+            while (pending.size() > maxPending) {
+                Future<Part> future = pending.removeFirst();
+                try {
+                    future.get().write();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while writing model package");
+                } catch (ExecutionException e) {
+                    throw new IOException(e.getCause());
+                }
+            }
+        }
+
+        private void startEntry(Entry entry) throws IOException {
+            current = entry;
+            entry.offset = position;
+            entry.compressedSize = 0;
+            ByteBuffer header = buffer(30 + entry.nameBytes.length + (entry.zip64Header ? 20 : 0));
+            header.putInt(0x04034b50);
+            header.putShort((short) (entry.zip64Header ? 45 : 20));
+            header.putShort((short) 0x0800); // UTF-8 names
+            header.putShort((short) (entry.stored ? 0 : 8));
+            header.putInt(entry.dosTime);
+            // crc and sizes are filled in when the entry is complete
+            header.putInt(0);
+            header.putInt(entry.zip64Header ? -1 : 0);
+            header.putInt(entry.zip64Header ? -1 : 0);
+            header.putShort((short) entry.nameBytes.length);
+            header.putShort((short) (entry.zip64Header ? 20 : 0));
+            header.put(entry.nameBytes);
+            if (entry.zip64Header) {
+                header.putShort((short) 0x0001);
+                header.putShort((short) 16);
+                header.putLong(0);
+                header.putLong(0);
+            }
+            header.flip();
+            append(header);
+        }
+
+        private void writeData(ByteBuffer data) throws IOException {
+            current.compressedSize += data.remaining();
+            append(data);
+        }
+
+        private void endEntry(Entry entry, long crc, long size) throws IOException {
+            entry.crc = crc;
+            entry.size = size;
+            if (!entry.zip64Header && (size >= maxInt || entry.compressedSize >= maxInt)) {
+                throw new IOException(entry.file + " was modified while it was packaged");
+            }
+            ByteBuffer values;
+            if (entry.zip64Header) {
+                values = buffer(4);
+                values.putInt((int) crc);
+                overwrite(values, entry.offset + 14);
+                values = buffer(16);
+                values.putLong(size);
+                values.putLong(entry.compressedSize);
+                overwrite(values, entry.offset + 30 + entry.nameBytes.length + 4);
+            } else {
+                values = buffer(12);
+                values.putInt((int) crc);
+                values.putInt((int) entry.compressedSize);
+                values.putInt((int) size);
+                overwrite(values, entry.offset + 14);
+            }
+        }
+
+        private void writeCentralDirectory(List<Entry> entries) throws IOException {
+            long start = position;
+            for (Entry entry : entries) {
+                int extraLength = 0;
+                if (entry.isZip64()) {
+                    extraLength = 4 + (entry.size >= maxInt ? 8 : 0) + (entry.compressedSize >= maxInt ? 8 : 0)
+                            + (entry.offset >= maxInt ? 8 : 0);
+                }
+                ByteBuffer header = buffer(46 + entry.nameBytes.length + extraLength);
+                header.putInt(0x02014b50);
+                header.putShort((short) 45);
+                header.putShort((short) (entry.isZip64() || entry.zip64Header ? 45 : 20));
+                header.putShort((short) 0x0800);
+                header.putShort((short) (entry.stored ? 0 : 8));
+                header.putInt(entry.dosTime);
+                header.putInt((int) entry.crc);
+                header.putInt((int) Math.min(entry.compressedSize, maxInt));
+                header.putInt((int) Math.min(entry.size, maxInt));
+                header.putShort((short) entry.nameBytes.length);
+                header.putShort((short) extraLength);
+                header.putShort((short) 0); // comment
+                header.putShort((short) 0); // disk
+                header.putShort((short) 0); // internal attributes
+                header.putInt(0); // external attributes
+                header.putInt((int) Math.min(entry.offset, maxInt));
+                header.put(entry.nameBytes);
+                if (extraLength > 0) {
+                    header.putShort((short) 0x0001);
+                    header.putShort((short) (extraLength - 4));
+                    if (entry.size >= maxInt) header.putLong(entry.size);
+                    if (entry.compressedSize >= maxInt) header.putLong(entry.compressedSize);
+                    if (entry.offset >= maxInt) header.putLong(entry.offset);
+                }
+                header.flip();
+                append(header);
+            }
+            long size = position - start;
+            if (entries.size() >= maxShort || start >= maxInt || size >= maxInt) {
+                long end = position;
+                ByteBuffer zip64End = buffer(56 + 20);
+                zip64End.putInt(0x06064b50);
+                zip64End.putLong(44);
+                zip64End.putShort((short) 45);
+                zip64End.putShort((short) 45);
+                zip64End.putInt(0);
+                zip64End.putInt(0);
+                zip64End.putLong(entries.size());
+                zip64End.putLong(entries.size());
+                zip64End.putLong(size);
+                zip64End.putLong(start);
+                zip64End.putInt(0x07064b50);
+                zip64End.putInt(0);
+                zip64End.putLong(end);
+                zip64End.putInt(1);
+                zip64End.flip();
+                append(zip64End);
+            }
+            ByteBuffer end = buffer(22);
+            end.putInt(0x06054b50);
+            end.putShort((short) 0);
+            end.putShort((short) 0);
+            end.putShort((short) Math.min(entries.size(), maxShort));
+            end.putShort((short) Math.min(entries.size(), maxShort));
+            end.putInt((int) Math.min(size, maxInt));
+            end.putInt((int) Math.min(start, maxInt));
+            end.putShort((short) 0);
+            end.flip();
+            append(end);
+        }
+
+        private void append(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private void overwrite(ByteBuffer buffer, long offset) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                offset += channel.write(buffer, offset);
+            }
+        }
+    }
+
+    /**
+     * Deflates one block into raw deflate data which can be concatenated with the data of the other blocks of the entry.
+     * All but the last block end with a sync flush, the last one finishes the stream.
+     */
+    private ByteBuffer deflate(byte[] block, int length, byte[] previous, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (previous != null) {
+                deflater.setDictionary(previous, previous.length - dictionarySize, dictionarySize);
+            }
+            deflater.setInput(block, 0, length);
+            byte[] output = new byte[length + (length >> 6) + 64];
+            int outputLength = 0;
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (outputLength == output.length) output = Arrays.copyOf(output, output.length * 2);
+                    outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+                }
+            } else {
+                while (true) {
+                    if (outputLength == output.length) output = Arrays.copyOf(output, output.length * 2);
+                    int space = output.length - outputLength;
+                    int written = deflater.deflate(output, outputLength, space, Deflater.SYNC_FLUSH);
+                    outputLength += written;
+                    if (written < space) break;
+                }
+            }
+            return ByteBuffer.wrap(output, 0, outputLength);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static int readFully(InputStream stream, byte[] buffer) throws IOException {
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = stream.read(buffer, length, buffer.length - length)) >= 0) {
+            length += read;
+        }
+        return length;
+    }
+
+    private static ByteBuffer buffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int dosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) return (1 << 21) | (1 << 16);
+        return (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16
+                | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+}
@@ -0,0 +1,273 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.io.SpecificationSnapshot.SourceStamp;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded cache of parsed specifications in front of {@link SpecificationReader}, keyed by the path of the rdf.yaml.
+ * <p>
+ * A cached specification is returned as long as its file did not change, which is checked on every access by comparing
+ * size and modification time and, if enabled, the hash of the content. The least recently used entries are evicted once
+ * the total weight of all entries exceeds the maximum weight, by default every entry weighs 1.
+ * Concurrent requests for a path which is not cached yet wait for a single read of the file.
+ * <p>
+ * Cached specifications are shared between all callers and must not be modified.
+ */
+public class SpecificationCache {
+
+    private final long maximumWeight;
+    private final ToIntFunction<? super DefaultModelSpecification> weigher;
+    private final boolean hashContent;
+
+    private final LinkedHashMap<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<Path, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private static class Entry {
+        private final SourceStamp stamp;
+        private final DefaultModelSpecification specification;
+        private final int weight;
+
+        private Entry(SourceStamp stamp, DefaultModelSpecification specification, int weight) {
+            this.stamp = stamp;
+            this.specification = specification;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Hit, miss, load and eviction counts of a cache at the time {@link #getStats()} was called.
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long loadCount, long loadFailureCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadCount = loadCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return the number of requests which found no valid entry, including the ones waiting for the read of another request
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return the number of times a file was actually read
+         */
+        public long getLoadCount() {
+            return loadCount;
+        }
+
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "hits: " + hitCount + ", misses: " + missCount + ", loads: " + loadCount
+                    + ", load failures: " + loadFailureCount + ", evictions: " + evictionCount;
+        }
+    }
+
+    /**
+     * @param maximumSize the maximum number of cached specifications
+     */
+    public SpecificationCache(int maximumSize) {
+        this(maximumSize, specification -> 1, false);
+    }
+
+    /**
+     * @param maximumWeight the maximum total weight of all cached specifications
+     * @param weigher computes the weight of a specification, e.g. an estimate of its size
+     * @param hashContent whether entries are also validated against the hash of the file content
+     */
+    public SpecificationCache(long maximumWeight, ToIntFunction<? super DefaultModelSpecification> weigher, boolean hashContent) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.hashContent = hashContent;
+    }
+
+    /**
+     * @return the specification of the given file, read from disk if it is not cached or changed since it was read
+     * @throws IOException if the file cannot be read or its format version is not supported
+     */
+    public DefaultModelSpecification get(Path modelSpecificationPath) throws IOException {
+        Path key = modelSpecificationPath.toAbsolutePath().normalize();
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.stamp.matches(key)) {
+            hits.increment();
+            return entry.specification;
+        }
+        misses.increment();
+        return load(key).specification;
+    }
+
+    public void invalidate(Path modelSpecificationPath) {
+        Path key = modelSpecificationPath.toAbsolutePath().normalize();
+        synchronized (entries) {
+            Entry entry = entries.remove(key);
+            if (entry != null) totalWeight -= entry.weight;
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            totalWeight = 0;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(), evictions.sum());
+    }
+
+    private Entry load(Path key) throws IOException {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> running = loading.putIfAbsent(key, future);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Entry entry;
+            synchronized (entries) {
+                entry = entries.get(key);
+            }
+            // another loader may have finished between the lookup in get and registering this one
+            if (entry != null && entry.stamp.matches(key)) {
+                future.complete(entry);
+                return entry;
+            }
+            entry = read(key);
+            put(key, entry);
+            future.complete(entry);
+            return entry;
+        } catch (Throwable e) {
+            // waiting loaders block on the future, it has to complete whatever went wrong
+            loadFailures.increment();
+            invalidate(key);
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private Entry read(Path key) throws IOException {
+        loads.increment();
+        // stamp before reading, a change during the read makes the entry stale instead of going unnoticed
+        SourceStamp stamp = hashContent ? SourceStamp.ofContent(key) : SourceStamp.of(key);
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        if (!SpecificationReader.readStreaming(key, specification)) {
+            throw new IOException("Unsupported model specification in " + key);
+        }
+        return new Entry(stamp, specification, weigher.applyAsInt(specification));
+    }
+
+    private void put(Path key, Entry entry) {
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) totalWeight -= previous.weight;
+            totalWeight += entry.weight;
+            Iterator<Map.Entry<Path, Entry>> iterator = entries.entrySet().iterator();
+            // the entry which was just added is never evicted
+            while (totalWeight > maximumWeight && entries.size() > 1) {
+                Entry eldest = iterator.next().getValue();
+                iterator.remove();
+                totalWeight -= eldest.weight;
+                evictions.increment();
+            }
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IOException(cause);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.ModelSpecification;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.introspector.Property;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Reads and writes model specifications with reusable SnakeYAML infrastructure.
+ * {@link Yaml} instances are not thread-safe, therefore each thread using a codec gets its own
+ * {@link Yaml}, {@link Representer} and scalar constructor, created once and reused for all further calls
+ * of this thread. A codec instance can be shared freely between threads. The loader and dumper options
+ * passed to the constructor are used by all threads and must not be modified afterwards.
+ */
+public class SpecificationCodec {
+
+	private final static SpecificationCodec defaultCodec = new SpecificationCodec();
+
+	private final LoaderOptions loaderOptions;
+	private final DumperOptions dumperOptions;
+	private final StringPool stringPool;
+	private final ThreadLocal<Resources> resources = ThreadLocal.withInitial(this::createResources);
+
+	public SpecificationCodec() {
+		this(new LoaderOptions(), new DumperOptions());
+	}
+
+	public SpecificationCodec(LoaderOptions loaderOptions, DumperOptions dumperOptions) {
+		this(loaderOptions, dumperOptions, null);
+	}
+
+	/**
+	 * @param stringPool deduplicates all strings read by this codec, including map keys, may be null.
+	 * The pool can be shared by several codecs.
+	 */
+	public SpecificationCodec(LoaderOptions loaderOptions, DumperOptions dumperOptions, StringPool stringPool) {
+		this.loaderOptions = loaderOptions;
+		this.dumperOptions = dumperOptions;
+		this.stringPool = stringPool;
+	}
+
+	/**
+	 * @return the codec used by the static methods of {@link SpecificationReader} and {@link SpecificationWriter}
+	 */
+	public static SpecificationCodec getDefault() {
+		return defaultCodec;
+	}
+
+	public LoaderOptions getLoaderOptions() {
+		return loaderOptions;
+	}
+
+	public DumperOptions getDumperOptions() {
+		return dumperOptions;
+	}
+
+	/**
+	 * @return the pool applied to the strings read by this codec, or null
+	 */
+	public StringPool getStringPool() {
+		return stringPool;
+	}
+
+	public boolean read(InputStream stream, DefaultModelSpecification specification) throws IOException {
+		return read(new UnicodeReader(stream), specification);
+	}
+
+	public boolean read(Reader reader, DefaultModelSpecification specification) throws IOException {
+		Map<String, Object> obj = load(reader);
+		if (obj == null) return false;
+		return SpecificationReader.read(obj, specification);
+	}
+
+	/**
+	 * Reads the specification directly from YAML parser events without building an intermediate {@link Map} tree.
+	 * Documents using anchors and aliases are not supported by this method, an {@link IOException} is thrown for them.
+	 */
+	public boolean readStreaming(InputStream stream, DefaultModelSpecification specification) throws IOException {
+		return readStreaming(new UnicodeReader(stream), specification);
+	}
+
+	/**
+	 * Reads the specification directly from YAML parser events without building an intermediate {@link Map} tree.
+	 * Documents using anchors and aliases are not supported by this method, an {@link IOException} is thrown for them.
+	 */
+	public boolean readStreaming(Reader reader, DefaultModelSpecification specification) throws IOException {
+		Resources res = resources.get();
+		return SpecificationEventReader.read(reader, specification, res.resolver, res.scalarConstructor);
+	}
+
+	boolean readStreaming(Reader reader, DefaultModelSpecification specification, Predicate<String> keys) throws IOException {
+		return readStreaming(reader, specification, keys, null);
+	}
+
+	boolean readStreaming(Reader reader, DefaultModelSpecification specification, Predicate<String> keys, SpecificationRecycler recycler) throws IOException {
+		Resources res = resources.get();
+		return SpecificationEventReader.read(reader, specification, res.resolver, res.scalarConstructor, keys, recycler);
+	}
+
+	/**
+	 * Reads the stream only up to the {@code format_version} entry, see {@link SpecificationReader#readFormatVersion(java.nio.file.Path)}.
+	 */
+	public String readFormatVersion(InputStream stream) throws IOException {
+		return readFormatVersion(new UnicodeReader(stream));
+	}
+
+	public String readFormatVersion(Reader reader) throws IOException {
+		Resources res = resources.get();
+		return SpecificationEventReader.readFormatVersion(reader, res.resolver, res.scalarConstructor);
+	}
+
+	public Map<String, Object> load(Reader reader) {
+		return resources.get().yaml.load(reader);
+	}
+
+	public void write(ModelSpecification specification, Writer writer) {
+		dump(SpecificationWriter.write(specification), writer);
+	}
+
+	/**
+	 * Writes a 0.4 specification directly as YAML events, without building the intermediate {@link Map} tree.
+	 * Entries without value are omitted. Specifications of other format versions are written by {@link #write(ModelSpecification, Writer)}.
+	 */
+	public void writeStreaming(ModelSpecification specification, Writer writer) throws IOException {
+		if (!SpecificationEventWriter.write(specification, writer, dumperOptions, resources.get().resolver)) {
+			write(specification, writer);
+		}
+	}
+
+	public void dump(Object data, Writer writer) {
+		resources.get().yaml.dump(data, writer);
+	}
+
+	public String dump(Object data) {
+		return resources.get().yaml.dump(data);
+	}
+
+	private Resources createResources() {
+		Resolver resolver = new Resolver();
+		Constructor constructor = stringPool != null ? new PoolingConstructor(loaderOptions, stringPool) : new Constructor(loaderOptions);
+		Yaml yaml = new Yaml(constructor, new NullSkippingRepresenter(), dumperOptions, loaderOptions, resolver);
+		return new Resources(yaml, resolver, new SpecificationEventReader.ScalarConstructor(stringPool));
+	}
+
+	private static class Resources {
+		private final Yaml yaml;
+		private final Resolver resolver;
+		private final SpecificationEventReader.ScalarConstructor scalarConstructor;
+
+		private Resources(Yaml yaml, Resolver resolver, SpecificationEventReader.ScalarConstructor scalarConstructor) {
+			this.yaml = yaml;
+			this.resolver = resolver;
+			this.scalarConstructor = scalarConstructor;
+		}
+	}
+
+	private static class PoolingConstructor extends Constructor {
+		private PoolingConstructor(LoaderOptions loaderOptions, StringPool stringPool) {
+			super(loaderOptions);
+			yamlConstructors.put(Tag.STR, new ConstructYamlStr() {
+				@Override
+				public Object construct(Node node) {
+					return stringPool.intern((String) super.construct(node));
+				}
+			});
+		}
+	}
+
+	private static class NullSkippingRepresenter extends Representer {
+		@Override
+		protected NodeTuple representJavaBeanProperty(Object javaBean, Property property, Object propertyValue, Tag customTag) {
+			// if value of property is null, ignore it.
+			if (propertyValue == null) {
+				return null;
+			}
+			else {
+				return super.representJavaBeanProperty(javaBean, property, propertyValue, customTag);
+			}
+		}
+	}
+}
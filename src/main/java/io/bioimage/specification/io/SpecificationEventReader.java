@@ -0,0 +1,1033 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.*;
+import io.bioimage.specification.weights.OnnxWeightsSpecification;
+import io.bioimage.specification.weights.TensorFlowSavedModelBundleSpecification;
+import io.bioimage.specification.weights.TorchscriptWeightsSpecification;
+import org.yaml.snakeyaml.constructor.Construct;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.ScalarNode;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.Predicate;
+
+import static io.bioimage.specification.util.SpecificationUtil.asMap;
+
+/**
+ * Reads a model specification directly from SnakeYAML parser events. In contrast to
+ * {@link SpecificationReader#read(InputStream, DefaultModelSpecification)} the document is not
+ * loaded into a generic {@link Map} tree first, nodes, weights and authors are created while parsing.
+ * Only free-form sections (config, attachments, data ranges, transformation kwargs and the legacy
+ * prediction / training blocks of 0.1.0 and 0.2.x) are still collected as maps or lists.
+ * Since the format version might be declared anywhere in the document, the collected values
+ * are applied to the specification according to the rules of the matching
+ * SpecificationReaderWriterV* class once the document has been parsed completely.
+ */
+class SpecificationEventReader {
+
+    private final static String idName = "name";
+    private final static String idDescription = "description";
+    private final static String idCite = "cite";
+    private final static String idAuthors = "authors";
+    private final static String idDocumentation = "documentation";
+    private final static String idTags = "tags";
+    private final static String idLicense = "license";
+    private final static String idFormatVersion = "format_version";
+    private final static String idTimestamp = "timestamp";
+    private final static String idSource = "source";
+    private final static String idHash = "sha256";
+    private final static String idGitRepo = "git_repo";
+    private final static String idAttachments = "attachments";
+    private final static String idTestInput = "test_input";
+    private final static String idTestOutput = "test_output";
+    private final static String idTestInputs = "test_inputs";
+    private final static String idTestOutputs = "test_outputs";
+    private final static String idSampleInputs = "sample_inputs";
+    private final static String idSampleOutputs = "sample_outputs";
+    private final static String idCovers = "covers";
+    private final static String idInputs = "inputs";
+    private final static String idOutputs = "outputs";
+    private final static String idPrediction = "prediction";
+    private final static String idTraining = "training";
+    private final static String idWeights = "weights";
+    private final static String idWeightsSource = "source";
+    private final static String idWeightsHash = "sha256";
+    private final static String idWeightsTag = "tag";
+    private final static String idWeightsOnnxOpsetVersion = "opset_version";
+    private final static String idPackagedBy = "packaged_by";
+    private final static String idDependencies = "dependencies";
+    private final static String idType = "type";
+    private final static String idVersion = "version";
+    private final static String idParent = "parent";
+    private final static String idParentUri = "uri";
+    private final static String idParentHash = "sha256";
+    private final static String idDownloadUrl = "download_url";
+    private final static String idBadges = "badges";
+    private final static String idIcon = "icon";
+    private final static String idLinks = "links";
+    private final static String idMaintainers = "maintainers";
+    private final static String idRunMode = "run_mode";
+    private final static String idExecutionModel = "execution_model";
+    private final static String idConfig = "config";
+
+    private final static String idNodeName = "name";
+    private final static String idNodeAxes = "axes";
+    private final static String idNodeDescription = "description";
+    private final static String idNodeDataType = "data_type";
+    private final static String idNodeDataRange = "data_range";
+    private final static String idNodeShape = "shape";
+    private final static String idNodeHalo = "halo";
+    private final static String idNodeShapeMin = "min";
+    private final static String idNodeShapeStep = "step";
+    private final static String idNodePreprocessing = "preprocessing";
+    private final static String idNodeShapeReferenceInput = "reference_input";
+    private final static String idNodeShapeScale = "scale";
+    private final static String idNodeShapeOffset = "offset";
+    private final static String idNodePostprocessing = "postprocessing";
+
+    private final static String idCiteText = "text";
+    private final static String idCiteDoi = "doi";
+    private final static String idCiteUrl = "url";
+
+    private final static String idAuthorName = "name";
+    private final static String idAuthorAffiliation = "affiliation";
+    private final static String idAuthorOrcid = "orcid";
+    private final static String idAuthorEmail = "email";
+    private final static String idAuthorGithubUser = "github_user";
+
+    private final static String idBadgeIcon = "icon";
+    private final static String idBadgeLabel = "label";
+    private final static String idBadgeUrl = "url";
+
+    private final static String idTransformationName = "name";
+    private final static String idTransformationKwargs = "kwargs";
+
+    private final static String idWeightsTensorFlowSavedModelBundle = "tensorflow_saved_model_bundle";
+    private final static String idWeightsTorchscript = "torchscript";
+    private final static String idWeightsPytorchStateDict = "pytorch_state_dict";
+    private final static String idWeightsKerasHDF5 = "keras_hdf5";
+    private final static String idWeightsTensorFlowJS = "tensorflow_js";
+    private final static String idWeightsOnnx = "onnx";
+
+    /**
+     * Thrown for documents using YAML features the event reader cannot replay (anchors / aliases).
+     * Callers with access to the source can fall back to the tree based reader.
+     */
+    static class UnsupportedDocumentException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedDocumentException(String message) {
+            super(message);
+        }
+    }
+
+    private final Parser parser;
+    private final Resolver resolver;
+    private final ScalarConstructor scalarConstructor;
+    private final Predicate<String> keys;
+    private final SpecificationRecycler recycler;
+
+    // collected document content
+    private String name;
+    private String description;
+    private String documentation;
+    private String license;
+    private String formatVersion;
+    private String timestamp;
+    private String source;
+    private String hash;
+    private String gitRepo;
+    private String dependencies;
+    private String version;
+    private String type;
+    private String downloadUrl;
+    private String icon;
+    private String runMode;
+    private String executionModel;
+    private String testInput;
+    private String testOutput;
+    private List<String> tags;
+    private List<String> testInputs;
+    private List<String> testOutputs;
+    private List<String> sampleInputs;
+    private List<String> sampleOutputs;
+    private List<String> covers;
+    private List<String> links;
+    private List<CitationSpecification> citations;
+    private boolean singleCitation;
+    private List<AuthorSpecification> authors;
+    private List<AuthorSpecification> maintainers;
+    private List<AuthorSpecification> packagedBy;
+    private List<BadgeSpecification> badges;
+    private Map<String, String> attachments;
+    private ParentSpecification parent;
+    private List<InputNodeSpecification> inputs;
+    private List<OutputNodeSpecification> outputs;
+    private Map<String, WeightsSpecification> weights;
+    private Map<String, Object> config;
+    private Map<String, Object> legacy;
+
+    private SpecificationEventReader(Reader reader, Resolver resolver, ScalarConstructor scalarConstructor, Predicate<String> keys, SpecificationRecycler recycler) {
+        this.parser = new ParserImpl(new StreamReader(reader));
+        this.resolver = resolver;
+        this.scalarConstructor = scalarConstructor;
+        this.keys = keys;
+        this.recycler = recycler;
+    }
+
+    /**
+     * The resolver can be shared between threads, the scalar constructor must not be.
+     */
+    static boolean read(Reader reader, DefaultModelSpecification specification, Resolver resolver, ScalarConstructor scalarConstructor) throws IOException {
+        return read(reader, specification, resolver, scalarConstructor, key -> true);
+    }
+
+    /**
+     * Only reads the top level entries accepted by {@code keys}, all other values are skipped without being constructed.
+     * {@code format_version} is always read.
+     */
+    static boolean read(Reader reader, DefaultModelSpecification specification, Resolver resolver, ScalarConstructor scalarConstructor, Predicate<String> keys) throws IOException {
+        return read(reader, specification, resolver, scalarConstructor, keys, null);
+    }
+
+    /**
+     * @param recycler provides the node and transformation objects to fill, may be null
+     */
+    static boolean read(Reader reader, DefaultModelSpecification specification, Resolver resolver, ScalarConstructor scalarConstructor, Predicate<String> keys, SpecificationRecycler recycler) throws IOException {
+        SpecificationEventReader eventReader = new SpecificationEventReader(reader, resolver, scalarConstructor, keys, recycler);
+        return eventReader.readDocument() && eventReader.apply(specification);
+    }
+
+    /**
+     * Reads only the top level keys of the document up to {@code format_version}, values of other keys are skipped
+     * without being constructed and the rest of the document is not read at all.
+     * @return the format version or null if the document is not a mapping or has no format version
+     */
+    static String readFormatVersion(Reader reader, Resolver resolver, ScalarConstructor scalarConstructor) throws IOException {
+        SpecificationEventReader eventReader = new SpecificationEventReader(reader, resolver, scalarConstructor, key -> false, null);
+        return eventReader.readFormatVersion();
+    }
+
+    private String readFormatVersion() throws IOException {
+        if (!startDocument()) return null;
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idFormatVersion.equals(key)) {
+                return readString();
+            }
+            skipValue();
+        }
+        return null;
+    }
+
+    private boolean startDocument() {
+        parser.getEvent();
+        if (!parser.checkEvent(Event.ID.DocumentStart)) return false;
+        parser.getEvent();
+        if (!parser.checkEvent(Event.ID.MappingStart)) return false;
+        parser.getEvent();
+        return true;
+    }
+
+    private boolean readDocument() throws IOException {
+        if (!startDocument()) return false;
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (key == null || !(keys.test(key) || idFormatVersion.equals(key))) {
+                skipValue();
+            } else {
+                readEntry(key);
+                // stop as soon as it is clear that the document cannot be applied
+                if (idFormatVersion.equals(key) && !SpecificationReader.canRead(formatVersion)) return false;
+            }
+        }
+        parser.getEvent();
+        return true;
+    }
+
+    private void readEntry(String key) throws IOException {
+        switch (key) {
+            case idName:
+                name = readString();
+                break;
+            case idDescription:
+                description = readString();
+                break;
+            case idDocumentation:
+                documentation = readString();
+                break;
+            case idLicense:
+                license = readString();
+                break;
+            case idFormatVersion:
+                formatVersion = readString();
+                break;
+            case idTimestamp:
+                timestamp = readString();
+                break;
+            case idSource:
+                source = readString();
+                break;
+            case idHash:
+                hash = readString();
+                break;
+            case idGitRepo:
+                gitRepo = readString();
+                break;
+            case idDependencies:
+                dependencies = readString();
+                break;
+            case idVersion:
+                version = readString();
+                break;
+            case idType:
+                type = readString();
+                break;
+            case idDownloadUrl:
+                downloadUrl = readString();
+                break;
+            case idIcon:
+                icon = readString();
+                break;
+            case idRunMode:
+                runMode = readString();
+                break;
+            case idExecutionModel:
+                executionModel = readString();
+                break;
+            case idTestInput:
+                testInput = readString();
+                break;
+            case idTestOutput:
+                testOutput = readString();
+                break;
+            case idTags:
+                tags = readStringList();
+                break;
+            case idTestInputs:
+                testInputs = readStringList();
+                break;
+            case idTestOutputs:
+                testOutputs = readStringList();
+                break;
+            case idSampleInputs:
+                sampleInputs = readStringList();
+                break;
+            case idSampleOutputs:
+                sampleOutputs = readStringList();
+                break;
+            case idCovers:
+                covers = readStringList();
+                break;
+            case idLinks:
+                links = readStringList();
+                break;
+            case idCite:
+                readCitations();
+                break;
+            case idAuthors:
+                authors = readAuthors();
+                break;
+            case idMaintainers:
+                maintainers = readAuthors();
+                break;
+            case idPackagedBy:
+                packagedBy = readAuthors();
+                break;
+            case idBadges:
+                badges = readBadges();
+                break;
+            case idAttachments:
+                attachments = asTypedMap(readValue());
+                break;
+            case idParent:
+                parent = readParent();
+                break;
+            case idInputs:
+                inputs = readInputNodes();
+                break;
+            case idOutputs:
+                outputs = readOutputNodes();
+                break;
+            case idWeights:
+                weights = readWeights();
+                break;
+            case idConfig:
+                config = asMap(readValue());
+                break;
+            case idPrediction:
+            case idTraining:
+                if (legacy == null) legacy = new HashMap<>();
+                legacy.put(key, readValue());
+                break;
+            default:
+                skipValue();
+        }
+    }
+
+    private boolean apply(DefaultModelSpecification specification) throws IOException {
+        if (SpecificationReaderWriterV4.canRead(formatVersion)) {
+            applyV4(specification);
+            return true;
+        }
+        if (SpecificationReaderWriterV3.canRead(formatVersion)) {
+            applyV3(specification);
+            return true;
+        }
+        if (SpecificationReaderWriterV2.canRead(formatVersion)) {
+            applyV2(specification);
+            return true;
+        }
+        if (SpecificationReaderWriterV1.canRead(formatVersion)) {
+            applyV1(specification);
+            return true;
+        }
+        return false;
+    }
+
+    private void applyV4(DefaultModelSpecification specification) {
+        specification.setName(name);
+        specification.setDescription(description);
+        specification.setVersion(version);
+        specification.setType(type);
+        specification.setTimestamp(timestamp);
+        if (citations != null && !singleCitation) citations.forEach(specification::addCitation);
+        if (authors != null) authors.forEach(specification::addAuthor);
+        if (attachments != null) specification.setAttachments(attachments);
+        if (maintainers != null) maintainers.forEach(specification::addMaintainer);
+        if (badges != null) badges.forEach(specification::addBadge);
+        specification.setPackaged_by(packagedBy);
+        specification.setDocumentation(documentation);
+        specification.setTags(tags);
+        specification.setLicense(license);
+        specification.setFormatVersion(formatVersion);
+        specification.setSource("n2v".equals(source) ? null : source);
+        specification.setGitRepo(gitRepo);
+        specification.setTestInputs(testInputs);
+        specification.setTestOutputs(testOutputs);
+        specification.setSampleInputs(sampleInputs);
+        specification.setSampleOutputs(sampleOutputs);
+        specification.setCovers(covers);
+        specification.setDependencies(dependencies);
+        specification.setParent(parent);
+        specification.setDownloadUrl(downloadUrl);
+        specification.setIcon(icon);
+        specification.setLinks(links);
+        specification.setRunMode(runMode);
+        applyNodes(specification, false, true);
+        if (weights != null) weights.forEach(specification::addWeights);
+        specification.setConfig(config);
+    }
+
+    private void applyV3(DefaultModelSpecification specification) {
+        specification.setName(name);
+        specification.setDescription(description);
+        specification.setVersion(version);
+        specification.setType(type);
+        specification.setTimestamp(timestamp);
+        if (citations != null && !singleCitation) citations.forEach(specification::addCitation);
+        if (authors != null) authors.forEach(specification::addAuthor);
+        if (attachments != null) specification.setAttachments(attachments);
+        specification.setDocumentation(documentation);
+        specification.setTags(tags);
+        specification.setLicense(license);
+        specification.setFormatVersion(formatVersion);
+        specification.setExecutionModel(executionModel);
+        specification.setSource("n2v".equals(source) ? null : source);
+        specification.setHash(hash);
+        specification.setGitRepo(gitRepo);
+        specification.setTestInputs(testInputs);
+        specification.setTestOutputs(testOutputs);
+        specification.setSampleInputs(sampleInputs);
+        specification.setSampleOutputs(sampleOutputs);
+        specification.setCovers(covers);
+        specification.setDependencies(dependencies);
+        specification.setParent(parent);
+        applyNodes(specification, false, true);
+        if (weights != null) weights.forEach(specification::addWeights);
+        specification.setConfig(config);
+    }
+
+    private void applyV2(DefaultModelSpecification specification) {
+        specification.setName(name);
+        specification.setDescription(description);
+        if (citations != null && !singleCitation) {
+            citations.forEach(citation -> citation.setUrl(null));
+            citations.forEach(specification::addCitation);
+        }
+        if (authors != null) specification.setAuthors(authors);
+        specification.setDocumentation(documentation);
+        specification.setTags(tags);
+        specification.setLicense(license);
+        specification.setFormatVersion(formatVersion);
+        specification.setSource(source);
+        specification.setExecutionModel("denoiseg".equals(source) ? source : null);
+        specification.setSampleInputs(Collections.singletonList(testInput));
+        specification.setSampleOutputs(Collections.singletonList(testOutput));
+        applyNodes(specification, true, false);
+        if (legacy != null) {
+            SpecificationReaderWriterV2.readTraining(specification, legacy);
+            SpecificationReaderWriterV2.readPrediction(specification, legacy);
+        }
+        WeightsSpecification weights = new TensorFlowSavedModelBundleSpecification();
+        specification.addWeights(TensorFlowSavedModelBundleSpecification.id, weights);
+    }
+
+    private void applyV1(DefaultModelSpecification specification) {
+        specification.setName(name);
+        specification.setDescription(description);
+        if (citations != null && singleCitation) {
+            CitationSpecification citation = citations.get(0);
+            citation.setUrl(null);
+            specification.addCitation(citation);
+        }
+        if (authors != null) specification.setAuthors(authors);
+        specification.setDocumentation(documentation);
+        specification.setTags(tags);
+        specification.setLicense(license);
+        specification.setFormatVersion(formatVersion);
+        specification.setSource(source);
+        specification.setSampleInputs(Collections.singletonList(testInput));
+        specification.setSampleOutputs(Collections.singletonList(testOutput));
+        applyNodes(specification, true, false);
+        if (legacy != null) {
+            SpecificationReaderWriterV1.readTraining(specification, legacy);
+            SpecificationReaderWriterV1.readPrediction(specification, legacy);
+        }
+        WeightsSpecification weights = new TensorFlowSavedModelBundleSpecification();
+        specification.addWeights(TensorFlowSavedModelBundleSpecification.id, weights);
+    }
+
+    /**
+     * Nodes are read with all keys any format version knows about,
+     * this strips the ones the matching format version does not read.
+     */
+    private void applyNodes(DefaultModelSpecification specification, boolean legacyFormat, boolean withProcessing) {
+        if (inputs != null) {
+            for (InputNodeSpecification input : inputs) {
+                if (!legacyFormat) input.setHalo(null);
+                if (legacyFormat) input.setDescription(null);
+                if (!withProcessing) input.setPreprocessing(null);
+                specification.addInputNode(input);
+            }
+        }
+        if (outputs != null) {
+            for (OutputNodeSpecification output : outputs) {
+                if (legacyFormat) output.setDescription(null);
+                if (!withProcessing) output.setPostprocessing(null);
+                specification.addOutputNode(output);
+            }
+        }
+    }
+
+    private void readCitations() throws IOException {
+        if (parser.checkEvent(Event.ID.MappingStart)) {
+            singleCitation = true;
+            citations = new ArrayList<>(1);
+            citations.add(readCitation());
+            return;
+        }
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return;
+        }
+        parser.getEvent();
+        citations = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            if (parser.checkEvent(Event.ID.MappingStart)) {
+                citations.add(readCitation());
+            } else {
+                skipValue();
+            }
+        }
+        parser.getEvent();
+    }
+
+    private CitationSpecification readCitation() throws IOException {
+        CitationSpecification citation = new DefaultCitationSpecification();
+        parser.getEvent();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idCiteText.equals(key)) citation.setCitationText(readString());
+            else if (idCiteDoi.equals(key)) citation.setDOIText(readString());
+            else if (idCiteUrl.equals(key)) citation.setUrl(readString());
+            else skipValue();
+        }
+        parser.getEvent();
+        return citation;
+    }
+
+    private List<AuthorSpecification> readAuthors() throws IOException {
+        if (parser.checkEvent(Event.ID.Scalar)) {
+            String author = readString();
+            if (author == null) return null;
+            List<AuthorSpecification> authors = new ArrayList<>(1);
+            authors.add(new DefaultAuthorSpecification(author));
+            return authors;
+        }
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        List<AuthorSpecification> authors = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            if (parser.checkEvent(Event.ID.MappingStart)) {
+                authors.add(readAuthor());
+            } else {
+                String author = readString();
+                if (author != null) authors.add(new DefaultAuthorSpecification(author));
+            }
+        }
+        parser.getEvent();
+        return authors;
+    }
+
+    private AuthorSpecification readAuthor() throws IOException {
+        AuthorSpecification author = new DefaultAuthorSpecification();
+        parser.getEvent();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idAuthorName.equals(key)) author.setName(readString());
+            else if (idAuthorAffiliation.equals(key)) author.setAffiliation(readString());
+            else if (idAuthorOrcid.equals(key)) author.setOrcId(readString());
+            else if (idAuthorEmail.equals(key)) author.setEmail(readString());
+            else if (idAuthorGithubUser.equals(key)) author.setGithubUser(readString());
+            else skipValue();
+        }
+        parser.getEvent();
+        return author;
+    }
+
+    private List<BadgeSpecification> readBadges() throws IOException {
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        List<BadgeSpecification> badges = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            if (!parser.checkEvent(Event.ID.MappingStart)) {
+                skipValue();
+                continue;
+            }
+            parser.getEvent();
+            BadgeSpecification badge = new DefaultBadgeSpecification();
+            while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                String key = readKey();
+                if (idBadgeLabel.equals(key)) badge.setLabel(readString());
+                else if (idBadgeIcon.equals(key)) badge.setIcon(readString());
+                else if (idBadgeUrl.equals(key)) badge.setUrl(readString());
+                else skipValue();
+            }
+            parser.getEvent();
+            badges.add(badge);
+        }
+        parser.getEvent();
+        return badges;
+    }
+
+    private ParentSpecification readParent() throws IOException {
+        if (!parser.checkEvent(Event.ID.MappingStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        ParentSpecification parent = new DefaultParentSpecification();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idParentUri.equals(key)) parent.setUri(readString());
+            else if (idParentHash.equals(key)) parent.setHash(readString());
+            else skipValue();
+        }
+        parser.getEvent();
+        return parent;
+    }
+
+    private Map<String, WeightsSpecification> readWeights() throws IOException {
+        if (!parser.checkEvent(Event.ID.MappingStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        Map<String, WeightsSpecification> weights = new LinkedHashMap<>();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String name = readKey();
+            WeightsSpecification weightsSpec = name == null ? null : createWeights(name);
+            if (weightsSpec == null) {
+                skipValue();
+                continue;
+            }
+            readWeightsEntry(weightsSpec);
+            weights.put(name, weightsSpec);
+        }
+        parser.getEvent();
+        return weights;
+    }
+
+    private static WeightsSpecification createWeights(String name) {
+        switch (name) {
+            case idWeightsTensorFlowSavedModelBundle:
+                return new TensorFlowSavedModelBundleSpecification();
+            case idWeightsOnnx:
+                return new OnnxWeightsSpecification();
+            case idWeightsTorchscript:
+                return new TorchscriptWeightsSpecification();
+            case idWeightsTensorFlowJS:
+            case idWeightsPytorchStateDict:
+            case idWeightsKerasHDF5:
+                return new DefaultWeightsSpecification();
+        }
+        return null;
+    }
+
+    private void readWeightsEntry(WeightsSpecification weightsSpec) throws IOException {
+        if (!parser.checkEvent(Event.ID.MappingStart)) {
+            skipValue();
+            return;
+        }
+        parser.getEvent();
+        if (weightsSpec instanceof TensorFlowSavedModelBundleSpecification) {
+            ((TensorFlowSavedModelBundleSpecification) weightsSpec).setTag(null);
+        }
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idWeightsSource.equals(key)) {
+                weightsSpec.setSource(readString());
+            } else if (idWeightsHash.equals(key)) {
+                weightsSpec.setSha256(readString());
+            } else if (idWeightsTag.equals(key) && weightsSpec instanceof TensorFlowSavedModelBundleSpecification) {
+                ((TensorFlowSavedModelBundleSpecification) weightsSpec).setTag(readString());
+            } else if (idWeightsOnnxOpsetVersion.equals(key) && weightsSpec instanceof OnnxWeightsSpecification) {
+                ((OnnxWeightsSpecification) weightsSpec).setOpsetVersion(readString());
+            } else {
+                skipValue();
+            }
+        }
+        parser.getEvent();
+    }
+
+    private List<InputNodeSpecification> readInputNodes() throws IOException {
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        List<InputNodeSpecification> nodes = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            if (!parser.checkEvent(Event.ID.MappingStart)) {
+                skipValue();
+                continue;
+            }
+            parser.getEvent();
+            InputNodeSpecification node = recycler != null ? recycler.inputNode() : new DefaultInputNodeSpecification();
+            while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                String key = readKey();
+                if (readNodeEntry(node, key)) continue;
+                if (idNodeShape.equals(key)) readInputShape(node);
+                else if (idNodePreprocessing.equals(key)) node.setPreprocessing(readTransformations());
+                else skipValue();
+            }
+            parser.getEvent();
+            nodes.add(node);
+        }
+        parser.getEvent();
+        return nodes;
+    }
+
+    private List<OutputNodeSpecification> readOutputNodes() throws IOException {
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        List<OutputNodeSpecification> nodes = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            if (!parser.checkEvent(Event.ID.MappingStart)) {
+                skipValue();
+                continue;
+            }
+            parser.getEvent();
+            OutputNodeSpecification node = recycler != null ? recycler.outputNode() : new DefaultOutputNodeSpecification();
+            while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                String key = readKey();
+                if (readNodeEntry(node, key)) continue;
+                if (idNodeShape.equals(key)) readOutputShape(node);
+                else if (idNodePostprocessing.equals(key)) node.setPostprocessing(readTransformations());
+                else skipValue();
+            }
+            parser.getEvent();
+            nodes.add(node);
+        }
+        parser.getEvent();
+        return nodes;
+    }
+
+    private boolean readNodeEntry(NodeSpecification node, String key) throws IOException {
+        if (key == null) return false;
+        switch (key) {
+            case idNodeName:
+                node.setName(readString());
+                return true;
+            case idNodeAxes:
+                node.setAxes(readString());
+                return true;
+            case idNodeDataType:
+                node.setDataType(readString());
+                return true;
+            case idNodeDataRange:
+                node.setDataRange(asList(readValue()));
+                return true;
+            case idNodeDescription:
+                node.setDescription(readString());
+                return true;
+            case idNodeHalo:
+                node.setHalo(asTypedList(readValue()));
+                return true;
+        }
+        return false;
+    }
+
+    private void readInputShape(InputNodeSpecification node) throws IOException {
+        if (!parser.checkEvent(Event.ID.MappingStart)) {
+            skipValue();
+            return;
+        }
+        parser.getEvent();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idNodeShapeMin.equals(key)) node.setShapeMin(asTypedList(readValue()));
+            else if (idNodeShapeStep.equals(key)) node.setShapeStep(asTypedList(readValue()));
+            else skipValue();
+        }
+        parser.getEvent();
+    }
+
+    private void readOutputShape(OutputNodeSpecification node) throws IOException {
+        if (!parser.checkEvent(Event.ID.MappingStart)) {
+            skipValue();
+            return;
+        }
+        parser.getEvent();
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            String key = readKey();
+            if (idNodeShapeReferenceInput.equals(key)) node.setShapeReferenceInput(readString());
+            else if (idNodeShapeScale.equals(key)) node.setShapeScale(asTypedList(readValue()));
+            else if (idNodeShapeOffset.equals(key)) node.setShapeOffset(asTypedList(readValue()));
+            else skipValue();
+        }
+        parser.getEvent();
+    }
+
+    private List<TransformationSpecification> readTransformations() throws IOException {
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        List<TransformationSpecification> transformations = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            if (!parser.checkEvent(Event.ID.MappingStart)) {
+                skipValue();
+                continue;
+            }
+            parser.getEvent();
+            String transformation = null;
+            Map<String, Object> kwargs = null;
+            while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                String key = readKey();
+                if (idTransformationName.equals(key)) transformation = readString();
+                else if (idTransformationKwargs.equals(key)) kwargs = asMap(readValue());
+                else skipValue();
+            }
+            parser.getEvent();
+            transformations.add(SpecificationReaderWriterV4.readTransformation(transformation, kwargs, recycler));
+        }
+        parser.getEvent();
+        return transformations;
+    }
+
+    private List<String> readStringList() throws IOException {
+        if (parser.checkEvent(Event.ID.Scalar)) {
+            String value = readString();
+            if (value == null) return null;
+            List<String> res = new ArrayList<>(1);
+            res.add(value);
+            return res;
+        }
+        if (!parser.checkEvent(Event.ID.SequenceStart)) {
+            skipValue();
+            return null;
+        }
+        parser.getEvent();
+        List<String> res = new ArrayList<>();
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+            res.add(readString());
+        }
+        parser.getEvent();
+        return res;
+    }
+
+    private String readKey() throws IOException {
+        if (parser.checkEvent(Event.ID.Scalar)) {
+            Object key = readValue();
+            return key == null ? null : key.toString();
+        }
+        skipValue();
+        return null;
+    }
+
+    private String readString() throws IOException {
+        Object value = readValue();
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Reads the next node as plain Java object, the same way {@link org.yaml.snakeyaml.Yaml#load} would
+     * (mappings as {@link LinkedHashMap}, sequences as {@link ArrayList}, scalars resolved by their implicit tag).
+     */
+    private Object readValue() throws IOException {
+        Event event = parser.getEvent();
+        switch (event.getEventId()) {
+            case Scalar:
+                return readScalar((ScalarEvent) event);
+            case SequenceStart:
+                List<Object> list = new ArrayList<>();
+                while (!parser.checkEvent(Event.ID.SequenceEnd)) {
+                    list.add(readValue());
+                }
+                parser.getEvent();
+                return list;
+            case MappingStart:
+                Map<Object, Object> map = new LinkedHashMap<>();
+                while (!parser.checkEvent(Event.ID.MappingEnd)) {
+                    Object key = readValue();
+                    map.put(key, readValue());
+                }
+                parser.getEvent();
+                return map;
+            case Alias:
+                throw new UnsupportedDocumentException("YAML aliases are not supported when reading from parser events: " + event.getStartMark());
+        }
+        throw new IOException("Unexpected YAML event " + event);
+    }
+
+    private Object readScalar(ScalarEvent event) {
+        String value = event.getValue();
+        Tag tag;
+        if (event.getTag() == null || event.getTag().equals("!")) {
+            tag = resolver.resolve(NodeId.scalar, value, event.getImplicit().canOmitTagInPlainScalar());
+        } else {
+            tag = new Tag(event.getTag());
+        }
+        if (Tag.STR.equals(tag)) return scalarConstructor.constructString(value);
+        return scalarConstructor.construct(new ScalarNode(tag, value, null, null, event.getScalarStyle()));
+    }
+
+    private void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            Event event = parser.getEvent();
+            switch (event.getEventId()) {
+                case SequenceStart:
+                case MappingStart:
+                    depth++;
+                    break;
+                case SequenceEnd:
+                case MappingEnd:
+                    depth--;
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    private static List<?> asList(Object obj) {
+        if (obj == null) return null;
+        if (List.class.isAssignableFrom(obj.getClass())) {
+            return (List<?>) obj;
+        }
+        return null;
+    }
+
+    /**
+     * Like the tree based readers, the element types of lists and maps are not checked.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> asTypedList(Object obj) {
+        return (List<T>) asList(obj);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Map<String, V> asTypedMap(Object obj) {
+        return (Map<String, V>) (Map<String, ?>) asMap(obj);
+    }
+
+    /**
+     * Exposes the scalar constructors of {@link SafeConstructor} so that scalars are converted
+     * exactly like in the tree based reader without registering the nodes for later reference.
+     */
+    static class ScalarConstructor extends SafeConstructor {
+
+        private final StringPool stringPool;
+
+        ScalarConstructor() {
+            this(null);
+        }
+
+        /**
+         * @param stringPool applied to all string scalars, may be null
+         */
+        ScalarConstructor(StringPool stringPool) {
+            this.stringPool = stringPool;
+        }
+
+        Object construct(ScalarNode node) {
+            Construct construct = yamlConstructors.get(node.getTag());
+            if (construct == null) return node.getValue();
+            return construct.construct(node);
+        }
+
+        String constructString(String value) {
+            return stringPool != null ? stringPool.intern(value) : value;
+        }
+    }
+}
@@ -0,0 +1,577 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.*;
+import io.bioimage.specification.transformation.*;
+import io.bioimage.specification.weights.TensorFlowSavedModelBundleSpecification;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.emitter.Emitter;
+import org.yaml.snakeyaml.events.*;
+import org.yaml.snakeyaml.nodes.*;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes a specification of format version 0.4 as YAML by emitting events straight from its getters, without building
+ * the intermediate {@link Map} tree of {@link SpecificationReaderWriterV4#write(ModelSpecification)}.
+ * <p>
+ * The document has the same structure and key order as the tree based writer and uses the same default
+ * flow style (collections of scalars in flow style, all others in block style). In contrast to it, entries with
+ * a null value are omitted, except inside user defined maps like the config.
+ */
+class SpecificationEventWriter {
+
+    private final static String idName = "name";
+    private final static String idDescription = "description";
+    private final static String idCite = "cite";
+    private final static String idAuthors = "authors";
+    private final static String idDocumentation = "documentation";
+    private final static String idTags = "tags";
+    private final static String idLicense = "license";
+    private final static String idFormatVersion = "format_version";
+    private final static String idTimestamp = "timestamp";
+    private final static String idSource = "source";
+    private final static String idGitRepo = "git_repo";
+    private final static String idAttachments = "attachments";
+    private final static String idTestInputs = "test_inputs";
+    private final static String idTestOutputs = "test_outputs";
+    private final static String idSampleInputs = "sample_inputs";
+    private final static String idSampleOutputs = "sample_outputs";
+    private final static String idCovers = "covers";
+    private final static String idInputs = "inputs";
+    private final static String idOutputs = "outputs";
+    private final static String idWeights = "weights";
+    private final static String idWeightsSource = "source";
+    private final static String idWeightsHash = "sha256";
+    private final static String idWeightsTag = "tag";
+    private final static String idPackagedBy = "packaged_by";
+    private final static String idDependencies = "dependencies";
+    private final static String idType = "type";
+    private final static String idVersion = "version";
+    private final static String idParent = "parent";
+    private final static String idParentUri = "uri";
+    private final static String idParentHash = "sha256";
+    private final static String idDownloadUrl = "download_url";
+    private final static String idBadges = "badges";
+    private final static String idIcon = "icon";
+    private final static String idLinks = "links";
+    private final static String idMaintainers = "maintainers";
+    private final static String idRunMode = "run_mode";
+    private final static String idConfig = "config";
+
+    private final static String idNodeName = "name";
+    private final static String idNodeAxes = "axes";
+    private final static String idNodeDataType = "data_type";
+    private final static String idNodeDataRange = "data_range";
+    private final static String idNodeShape = "shape";
+    private final static String idNodeHalo = "halo";
+    private final static String idNodeShapeMin = "min";
+    private final static String idNodeShapeStep = "step";
+    private final static String idNodePreprocessing = "preprocessing";
+    private final static String idNodeShapeReferenceInput = "reference_input";
+    private final static String idNodeShapeScale = "scale";
+    private final static String idNodeShapeOffset = "offset";
+    private final static String idNodePostprocessing = "postprocessing";
+
+    private final static String idCiteText = "text";
+    private final static String idCiteDoi = "doi";
+    private final static String idCiteUrl = "url";
+
+    private final static String idAuthorName = "name";
+    private final static String idAuthorAffiliation = "affiliation";
+    private final static String idAuthorOrcid = "orcid";
+    private final static String idAuthorEmail = "email";
+    private final static String idAuthorGithubUser = "github_user";
+
+    private final static String idBadgeIcon = "icon";
+    private final static String idBadgeLabel = "label";
+    private final static String idBadgeUrl = "url";
+
+    private final static String idTransformationName = "name";
+    private final static String idTransformationKwargs = "kwargs";
+    private final static String idTransformationMode = "mode";
+    private final static String idTransformationModeFixed = "fixed";
+    private final static String idTransformationModePerDataset = "per_dataset";
+    private final static String idTransformationModePerSample = "per_sample";
+    private final static String idTransformationScaleLinear = "scale_linear";
+    private final static String idTransformationScaleLinearGain = "gain";
+    private final static String idTransformationScaleLinearOffset = "offset";
+    private final static String idTransformationZeroMean = "zero_mean_unit_variance";
+    private final static String idTransformationZeroMeanMean = "mean";
+    private final static String idTransformationZeroMeanStd = "std";
+    private final static String idTransformationScaleMinMax = "scale_min_max";
+    private final static String idTransformationScaleMinMaxReferenceInput = "reference_input";
+    private final static String idTransformationScaleMinMaxMinPercentile = "min_percentile";
+    private final static String idTransformationScaleMinMaxMaxPercentile = "max_percentile";
+    private final static String idTransformationPercentile = "percentile";
+    private final static String idTransformationPercentileMinPercentile = "min_percentile";
+    private final static String idTransformationPercentileMaxPercentile = "max_percentile";
+    private final static String idTransformationBinarize = "binarize";
+    private final static String idTransformationBinarizeThreshold = "threshold";
+    private final static String idTransformationClip = "clip";
+    private final static String idTransformationClipMin = "min";
+    private final static String idTransformationClipMax = "max";
+
+    private final Emitter emitter;
+    private final DumperOptions options;
+    private final Resolver resolver;
+    // only created for values of types without dedicated handling, e.g. dates in the config
+    private Representer representer;
+
+    private SpecificationEventWriter(Writer writer, DumperOptions options, Resolver resolver) {
+        this.emitter = new Emitter(writer, options);
+        this.options = options;
+        this.resolver = resolver;
+    }
+
+    /**
+     * @return false if the format version of the specification is not supported by this writer
+     */
+    static boolean write(ModelSpecification specification, Writer writer, DumperOptions options, Resolver resolver) throws IOException {
+        if (!SpecificationReaderWriterV4.canWrite(specification)) return false;
+        new SpecificationEventWriter(writer, options, resolver).writeDocument(specification);
+        return true;
+    }
+
+    private void writeDocument(ModelSpecification specification) throws IOException {
+        emitter.emit(new StreamStartEvent(null, null));
+        emitter.emit(new DocumentStartEvent(null, null, options.isExplicitStart(), options.getVersion(), options.getTags()));
+        startMapping(false);
+        writeMeta(specification);
+        writeNodes(specification);
+        writeWeights(specification);
+        if (specification.getConfig() != null) {
+            scalar(idConfig);
+            value(specification.getConfig());
+        }
+        endMapping();
+        emitter.emit(new DocumentEndEvent(null, null, options.isExplicitEnd()));
+        emitter.emit(new StreamEndEvent(null, null));
+    }
+
+    private void writeMeta(ModelSpecification specification) throws IOException {
+        entry(idFormatVersion, specification.getFormatVersion());
+        entry(idName, specification.getName());
+        entry(idTimestamp, specification.getTimestamp());
+        entry(idDescription, specification.getDescription());
+        writeAuthors(idAuthors, specification.getAuthors());
+        writeCitations(specification.getCitations());
+        entry(idDocumentation, specification.getDocumentation());
+        entry(idTags, specification.getTags());
+        entry(idLicense, specification.getLicense());
+        entry(idSource, specification.getSource());
+        entry(idGitRepo, specification.getGitRepo());
+        entry(idAttachments, specification.getAttachments());
+        entry(idTestInputs, specification.getTestInputs());
+        entry(idTestOutputs, specification.getTestOutputs());
+        entry(idSampleInputs, specification.getSampleInputs());
+        entry(idSampleOutputs, specification.getSampleOutputs());
+        entry(idDependencies, specification.getDependencies());
+        entry(idCovers, specification.getCovers());
+        ParentSpecification parent = specification.getParent();
+        if (parent != null) {
+            scalar(idParent);
+            startMapping(true);
+            entry(idParentUri, parent.getUri());
+            entry(idParentHash, parent.getHash());
+            endMapping();
+        }
+        entry(idVersion, specification.getVersion());
+        entry(idType, specification.getType());
+        writeAuthors(idMaintainers, specification.getMaintainers());
+        entry(idRunMode, specification.getRunMode());
+        List<BadgeSpecification> badges = specification.getBadges();
+        if (badges != null) {
+            scalar(idBadges);
+            startSequence(badges.isEmpty());
+            for (BadgeSpecification badge : badges) {
+                startMapping(true);
+                entry(idBadgeLabel, badge.getLabel());
+                entry(idBadgeIcon, badge.getIcon());
+                entry(idBadgeUrl, badge.getUrl());
+                endMapping();
+            }
+            endSequence();
+        }
+        entry(idIcon, specification.getIcon());
+        entry(idLinks, specification.getLinks());
+        entry(idDownloadUrl, specification.getDownloadUrl());
+        writeAuthors(idPackagedBy, specification.getPackagedBy());
+    }
+
+    private void writeAuthors(String key, List<AuthorSpecification> authors) throws IOException {
+        if (authors == null) return;
+        scalar(key);
+        startSequence(authors.isEmpty());
+        for (AuthorSpecification author : authors) {
+            startMapping(true);
+            entry(idAuthorName, author.getName());
+            entry(idAuthorOrcid, author.getOrcId());
+            entry(idAuthorAffiliation, author.getAffiliation());
+            entry(idAuthorEmail, author.getEmail());
+            entry(idAuthorGithubUser, author.getGithubUser());
+            endMapping();
+        }
+        endSequence();
+    }
+
+    private void writeCitations(List<CitationSpecification> citations) throws IOException {
+        scalar(idCite);
+        boolean empty = citations == null || citations.isEmpty();
+        startSequence(empty);
+        if (!empty) {
+            for (CitationSpecification citation : citations) {
+                startMapping(true);
+                entry(idCiteText, citation.getCitationText());
+                entry(idCiteDoi, citation.getDoiText());
+                entry(idCiteUrl, citation.getUrl());
+                endMapping();
+            }
+        }
+        endSequence();
+    }
+
+    private void writeNodes(ModelSpecification specification) throws IOException {
+        List<InputNodeSpecification> inputs = specification.getInputs();
+        scalar(idInputs);
+        startSequence(inputs == null || inputs.isEmpty());
+        if (inputs != null) {
+            for (InputNodeSpecification input : inputs) {
+                startMapping(false);
+                writeNode(input);
+                scalar(idNodeShape);
+                startMapping(!(input.getShapeMin() != null || input.getShapeStep() != null));
+                entry(idNodeShapeMin, input.getShapeMin());
+                entry(idNodeShapeStep, input.getShapeStep());
+                endMapping();
+                writeTransformations(idNodePreprocessing, input.getPreprocessing());
+                endMapping();
+            }
+        }
+        endSequence();
+        List<OutputNodeSpecification> outputs = specification.getOutputs();
+        scalar(idOutputs);
+        startSequence(outputs == null || outputs.isEmpty());
+        if (outputs != null) {
+            for (OutputNodeSpecification output : outputs) {
+                startMapping(false);
+                writeNode(output);
+                scalar(idNodeShape);
+                startMapping(output.getShapeScale() == null && output.getShapeOffset() == null);
+                entry(idNodeShapeReferenceInput, output.getReferenceInputName());
+                entry(idNodeShapeScale, output.getShapeScale());
+                entry(idNodeShapeOffset, output.getShapeOffset());
+                endMapping();
+                writeTransformations(idNodePostprocessing, output.getPostprocessing());
+                endMapping();
+            }
+        }
+        endSequence();
+    }
+
+    private void writeNode(NodeSpecification node) throws IOException {
+        scalar(idNodeName);
+        value(node.getName());
+        entry(idNodeAxes, node.getAxes());
+        entry(idNodeDataType, node.getDataType());
+        entry(idNodeDataRange, node.getDataRange());
+        entry(idNodeHalo, node.getHalo());
+    }
+
+    private void writeTransformations(String key, List<TransformationSpecification> transformations) throws IOException {
+        if (transformations == null) return;
+        scalar(key);
+        startSequence(transformations.isEmpty());
+        for (TransformationSpecification transformation : transformations) {
+            startMapping(false);
+            writeTransformation(transformation);
+            endMapping();
+        }
+        endSequence();
+    }
+
+    private void writeTransformation(TransformationSpecification transformation) throws IOException {
+        String name = null;
+        Object[] kwargs;
+        if (transformation instanceof ScaleLinearTransformation) {
+            name = idTransformationScaleLinear;
+            ScaleLinearTransformation scaleLinear = (ScaleLinearTransformation) transformation;
+            kwargs = new Object[]{
+                    idTransformationMode, mode(scaleLinear.getMode()),
+                    idTransformationScaleLinearGain, singletonList(scaleLinear.getGain()),
+                    idTransformationScaleLinearOffset, singletonList(scaleLinear.getOffset())};
+        } else if (transformation instanceof ZeroMeanUnitVarianceTransformation) {
+            name = idTransformationZeroMean;
+            ZeroMeanUnitVarianceTransformation zeroMean = (ZeroMeanUnitVarianceTransformation) transformation;
+            kwargs = new Object[]{
+                    idTransformationMode, mode(zeroMean.getMode()),
+                    idTransformationZeroMeanMean, singletonList(zeroMean.getMean()),
+                    idTransformationZeroMeanStd, singletonList(zeroMean.getStd())};
+        } else if (transformation instanceof BinarizeTransformation) {
+            name = idTransformationBinarize;
+            BinarizeTransformation binarize = (BinarizeTransformation) transformation;
+            kwargs = new Object[]{
+                    idTransformationMode, mode(binarize.getMode()),
+                    idTransformationBinarizeThreshold, singletonList(binarize.getThreshold())};
+        } else if (transformation instanceof ScaleMinMaxTransformation) {
+            name = idTransformationScaleMinMax;
+            ScaleMinMaxTransformation scaleMinMax = (ScaleMinMaxTransformation) transformation;
+            kwargs = new Object[]{
+                    idTransformationMode, mode(scaleMinMax.getMode()),
+                    idTransformationScaleMinMaxMinPercentile, scaleMinMax.getMinPercentile(),
+                    idTransformationScaleMinMaxMaxPercentile, scaleMinMax.getMaxPercentile(),
+                    idTransformationScaleMinMaxReferenceInput, scaleMinMax.getReferenceInput()};
+        } else if (transformation instanceof PercentileTransformation) {
+            name = idTransformationPercentile;
+            PercentileTransformation percentile = (PercentileTransformation) transformation;
+            kwargs = new Object[]{
+                    idTransformationMode, mode(percentile.getMode()),
+                    idTransformationPercentileMinPercentile, percentile.getMinPercentile(),
+                    idTransformationPercentileMaxPercentile, percentile.getMaxPercentile()};
+        } else if (transformation instanceof ClipTransformation) {
+            name = idTransformationClip;
+            ClipTransformation clip = (ClipTransformation) transformation;
+            kwargs = new Object[]{
+                    idTransformationMode, mode(clip.getMode()),
+                    idTransformationClipMin, clip.getMin(),
+                    idTransformationClipMax, clip.getMax()};
+        } else {
+            kwargs = new Object[0];
+        }
+        entry(idTransformationName, name);
+        scalar(idTransformationKwargs);
+        // single element lists are wrapped in a one element array, see singletonList
+        boolean flow = true;
+        for (int i = 1; i < kwargs.length; i += 2) {
+            if (kwargs[i] instanceof Object[]) flow = false;
+        }
+        startMapping(flow);
+        for (int i = 0; i < kwargs.length; i += 2) {
+            Object value = kwargs[i + 1];
+            if (value == null) continue;
+            scalar((String) kwargs[i]);
+            if (value instanceof Object[]) {
+                startSequence(true);
+                value(((Object[]) value)[0]);
+                endSequence();
+            } else {
+                value(value);
+            }
+        }
+        endMapping();
+    }
+
+    /**
+     * Marks a value which is written as list with a single element, like {@link java.util.Collections#singletonList}
+     * in the tree based writer, without allocating a list.
+     */
+    private static Object[] singletonList(Object value) {
+        return new Object[]{value};
+    }
+
+    private static String mode(ImageTransformation.Mode mode) {
+        if (mode == null) return null;
+        switch (mode) {
+            case FIXED:
+                return idTransformationModeFixed;
+            case PER_DATASET:
+                return idTransformationModePerDataset;
+            case PER_SAMPLE:
+                return idTransformationModePerSample;
+            default:
+                return null;
+        }
+    }
+
+    private void writeWeights(ModelSpecification specification) throws IOException {
+        Map<String, WeightsSpecification> weights = specification.getWeights();
+        scalar(idWeights);
+        startMapping(weights == null || weights.isEmpty());
+        if (weights != null) {
+            for (Map.Entry<String, WeightsSpecification> entry : weights.entrySet()) {
+                WeightsSpecification weight = entry.getValue();
+                scalar(entry.getKey());
+                startMapping(true);
+                entry(idWeightsSource, weight.getSource());
+                entry(idWeightsHash, weight.getSha256());
+                if (weight instanceof TensorFlowSavedModelBundleSpecification) {
+                    entry(idWeightsTag, ((TensorFlowSavedModelBundleSpecification) weight).getTag());
+                }
+                endMapping();
+            }
+        }
+        endMapping();
+    }
+
+    private void entry(String key, Object value) throws IOException {
+        if (value == null) return;
+        scalar(key);
+        value(value);
+    }
+
+    /**
+     * Writes any value the way {@link org.yaml.snakeyaml.Yaml#dump} would.
+     */
+    private void value(Object value) throws IOException {
+        if (value == null) {
+            scalar(Tag.NULL, "null", DumperOptions.ScalarStyle.PLAIN);
+        } else if (value instanceof String) {
+            scalar((String) value);
+        } else if (value instanceof Boolean) {
+            scalar(Tag.BOOL, value.toString(), DumperOptions.ScalarStyle.PLAIN);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            scalar(Tag.INT, value.toString(), DumperOptions.ScalarStyle.PLAIN);
+        } else if (value instanceof Number) {
+            scalar(Tag.FLOAT, floatValue((Number) value), DumperOptions.ScalarStyle.PLAIN);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            startSequence(allScalars(list));
+            for (Object element : list) {
+                value(element);
+            }
+            endSequence();
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            startMapping(allScalars(map.keySet()) && allScalars(map.values()));
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                value(entry.getKey());
+                value(entry.getValue());
+            }
+            endMapping();
+        } else {
+            node(represent(value));
+        }
+    }
+
+    private static String floatValue(Number number) {
+        double value = number.doubleValue();
+        if (Double.isNaN(value)) return ".NaN";
+        if (value == Double.POSITIVE_INFINITY) return ".inf";
+        if (value == Double.NEGATIVE_INFINITY) return "-.inf";
+        return number.toString();
+    }
+
+    private static boolean allScalars(Iterable<?> values) {
+        for (Object value : values) {
+            if (!isPlainScalar(value)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isPlainScalar(Object value) {
+        return value == null || value instanceof Number || value instanceof Boolean || value instanceof Date
+                || value instanceof String && !isMultiline((String) value);
+    }
+
+    private static boolean isMultiline(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\u0085' || c == '\u2028' || c == '\u2029') return true;
+        }
+        return false;
+    }
+
+    private Node represent(Object value) {
+        if (representer == null) {
+            representer = new Representer(options);
+        }
+        return representer.represent(value);
+    }
+
+    private void node(Node node) throws IOException {
+        if (node instanceof ScalarNode) {
+            ScalarNode scalar = (ScalarNode) node;
+            scalar(scalar.getTag(), scalar.getValue(), scalar.getScalarStyle());
+        } else if (node instanceof SequenceNode) {
+            SequenceNode sequence = (SequenceNode) node;
+            emitter.emit(new SequenceStartEvent(null, sequence.getTag().getValue(),
+                    sequence.getTag().equals(Tag.SEQ), null, null, sequence.getFlowStyle()));
+            for (Node element : sequence.getValue()) {
+                node(element);
+            }
+            endSequence();
+        } else {
+            MappingNode mapping = (MappingNode) node;
+            emitter.emit(new MappingStartEvent(null, mapping.getTag().getValue(),
+                    mapping.getTag().equals(Tag.MAP), null, null, mapping.getFlowStyle()));
+            for (NodeTuple tuple : mapping.getValue()) {
+                node(tuple.getKeyNode());
+                node(tuple.getValueNode());
+            }
+            endMapping();
+        }
+    }
+
+    private void scalar(String value) throws IOException {
+        scalar(Tag.STR, value, isMultiline(value) ? DumperOptions.ScalarStyle.LITERAL : DumperOptions.ScalarStyle.PLAIN);
+    }
+
+    /**
+     * The tag is omitted if the resolver detects it from the value, otherwise the emitter quotes the value or writes the tag.
+     */
+    private void scalar(Tag tag, String value, DumperOptions.ScalarStyle style) throws IOException {
+        ImplicitTuple implicit = new ImplicitTuple(
+                tag.equals(resolver.resolve(NodeId.scalar, value, true)),
+                tag.equals(resolver.resolve(NodeId.scalar, value, false)));
+        emitter.emit(new ScalarEvent(null, tag.getValue(), implicit, value, null, null, style));
+    }
+
+    private void startMapping(boolean flow) throws IOException {
+        emitter.emit(new MappingStartEvent(null, Tag.MAP.getValue(), true, null, null, flowStyle(flow)));
+    }
+
+    private void endMapping() throws IOException {
+        emitter.emit(new MappingEndEvent(null, null));
+    }
+
+    private void startSequence(boolean flow) throws IOException {
+        emitter.emit(new SequenceStartEvent(null, Tag.SEQ.getValue(), true, null, null, flowStyle(flow)));
+    }
+
+    private void endSequence() throws IOException {
+        emitter.emit(new SequenceEndEvent(null, null));
+    }
+
+    /**
+     * Same choice as the representer with the default flow style: flow style for collections of plain scalars only.
+     */
+    private DumperOptions.FlowStyle flowStyle(boolean onlyScalars) {
+        if (options.getDefaultFlowStyle() != DumperOptions.FlowStyle.AUTO) return options.getDefaultFlowStyle();
+        return onlyScalars ? DumperOptions.FlowStyle.FLOW : DumperOptions.FlowStyle.BLOCK;
+    }
+}
@@ -0,0 +1,239 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.AuthorSpecification;
+import io.bioimage.specification.DefaultAuthorSpecification;
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.WeightsSpecification;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.bioimage.specification.io.SpecificationWriter.modelFileName;
+
+/**
+ * Upgrades specifications of the format versions 0.1, 0.2 and 0.3 to the current format version.
+ * <p>
+ * The readers of the legacy versions already map the {@code prediction} section to the pre- and postprocessing of the
+ * nodes and keep the {@code training} section in the {@code fiji} config, the migration completes what the current
+ * format requires: the format version, test tensors (the legacy {@code test_input} and {@code test_output} are read
+ * as sample tensors), authors given by name only and the type. When files are migrated, the weights location is taken
+ * from the legacy {@code prediction} section.
+ */
+public class SpecificationMigrator {
+
+    private final static String modelType = "model";
+    private final static String legacyModelFileName = "model.yaml";
+    private final static String legacyModelFileSuffix = ".model.yaml";
+    private final static String idPrediction = "prediction";
+    private final static String idPredictionWeights = "weights";
+    private final static String idPredictionWeightsSource = "source";
+
+    /**
+     * Summary of {@link #migrateAll(Path, Executor, Durability)}, listing the files per outcome in discovery order.
+     */
+    public static class Report {
+        private final List<Path> migrated = new ArrayList<>();
+        private final List<Path> current = new ArrayList<>();
+        private final Map<Path, Exception> failed = new LinkedHashMap<>();
+
+        /**
+         * @return the files which were rewritten in the current format version
+         */
+        public List<Path> getMigrated() {
+            return Collections.unmodifiableList(migrated);
+        }
+
+        /**
+         * @return the files which already had the current format version and were not modified
+         */
+        public List<Path> getCurrent() {
+            return Collections.unmodifiableList(current);
+        }
+
+        /**
+         * @return the files which could not be read or written, they are not modified
+         */
+        public Map<Path, Exception> getFailed() {
+            return Collections.unmodifiableMap(failed);
+        }
+
+        @Override
+        public String toString() {
+            return migrated.size() + " migrated, " + current.size() + " current, " + failed.size() + " failed";
+        }
+    }
+
+    private enum Outcome {
+        MIGRATED, CURRENT
+    }
+
+    /**
+     * Upgrades the specification in memory.
+     * @return false if the specification already has the current format version
+     * @throws IOException if the format version is not supported
+     */
+    public static boolean migrate(DefaultModelSpecification specification) throws IOException {
+        String version = specification.getFormatVersion();
+        if (SpecificationReaderWriterV4.canRead(version)) return false;
+        if (!SpecificationReader.canRead(version)) {
+            throw new IOException("Cannot migrate specification of format version " + version);
+        }
+        specification.setFormatVersion(DefaultModelSpecification.getModelZooSpecificationVersion());
+        specification.setSampleInputs(withoutNull(specification.getSampleInputs()));
+        specification.setSampleOutputs(withoutNull(specification.getSampleOutputs()));
+        if (isEmpty(specification.getTestInputs())) specification.setTestInputs(specification.getSampleInputs());
+        if (isEmpty(specification.getTestOutputs())) specification.setTestOutputs(specification.getSampleOutputs());
+        specification.setAuthors(toAuthors(specification.getAuthors()));
+        if (specification.getType() == null) specification.setType(modelType);
+        return true;
+    }
+
+    /**
+     * Migrates all specifications below {@code root} in parallel on the shared I/O pool of the asynchronous read methods.
+     * @see #migrateAll(Path, Executor, Durability)
+     */
+    public static Report migrateAll(Path root) throws IOException, InterruptedException {
+        return migrateAll(root, AsyncIO.getDefaultExecutor(), Durability.NONE);
+    }
+
+    /**
+     * Discovers every rdf.yaml, model.yaml and *.model.yaml below {@code root}, reads them in parallel on the given
+     * executor and rewrites those of older format versions in place. Specifications without timestamp get the
+     * modification time of their file. Zipped models are not migrated.
+     * A file which cannot be migrated does not abort the run, it is reported in {@link Report#getFailed()} instead.
+     */
+    public static Report migrateAll(Path root, Executor executor, Durability durability) throws IOException, InterruptedException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.walk(root)) {
+            paths = files.filter(SpecificationMigrator::isSpecificationFile).collect(Collectors.toList());
+        }
+        Report report = new Report();
+        try (SpecificationWriteBatch batch = new SpecificationWriteBatch(durability)) {
+            List<CompletableFuture<Outcome>> futures = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                futures.add(AsyncIO.supply(() -> migrate(path, batch), executor));
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                try {
+                    if (futures.get(i).get() == Outcome.MIGRATED) report.migrated.add(paths.get(i));
+                    else report.current.add(paths.get(i));
+                } catch (ExecutionException e) {
+                    report.failed.put(paths.get(i), e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                }
+            }
+            batch.commit();
+        }
+        return report;
+    }
+
+    private static Outcome migrate(Path path, SpecificationWriteBatch batch) throws IOException {
+        // current files are only read up to their format version
+        String version = SpecificationReader.readFormatVersion(path);
+        if (SpecificationReaderWriterV4.canRead(version)) return Outcome.CURRENT;
+        Map<String, Object> document;
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            document = SpecificationCodec.getDefault().load(reader);
+        }
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        if (document == null || !SpecificationReader.read(document, specification)) {
+            throw new IOException("Unsupported model specification in " + path);
+        }
+        migrate(specification);
+        readPredictionWeights(specification, document);
+        if (specification.getTimestamp() == null) {
+            specification.setTimestamp(Files.getLastModifiedTime(path).toInstant().toString());
+        }
+        batch.write(specification, path);
+        return Outcome.MIGRATED;
+    }
+
+    /**
+     * Versions 0.1 and 0.2 have the location of the weights in the {@code prediction} section, which their readers skip.
+     */
+    private static void readPredictionWeights(DefaultModelSpecification specification, Map<String, Object> document) {
+        Object prediction = document.get(idPrediction);
+        if (!(prediction instanceof Map)) return;
+        Object weights = ((Map<?, ?>) prediction).get(idPredictionWeights);
+        if (!(weights instanceof Map)) return;
+        Object source = ((Map<?, ?>) weights).get(idPredictionWeightsSource);
+        if (source == null || specification.getWeights() == null) return;
+        for (WeightsSpecification weightsSpecification : specification.getWeights().values()) {
+            if (weightsSpecification.getSource() == null) weightsSpecification.setSource(source.toString());
+        }
+    }
+
+    private static boolean isSpecificationFile(Path path) {
+        if (!Files.isRegularFile(path)) return false;
+        String name = path.getFileName().toString();
+        return name.equals(modelFileName) || name.equals(legacyModelFileName) || name.endsWith(legacyModelFileSuffix);
+    }
+
+    /**
+     * Version 0.1 keeps authors given by name as strings.
+     */
+    private static List<AuthorSpecification> toAuthors(List<?> authors) {
+        if (authors == null) return null;
+        List<AuthorSpecification> result = new ArrayList<>(authors.size());
+        for (Object author : authors) {
+            if (author instanceof AuthorSpecification) result.add((AuthorSpecification) author);
+            else if (author != null) result.add(new DefaultAuthorSpecification(author.toString()));
+        }
+        return result;
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list == null || list.isEmpty();
+    }
+
+    /**
+     * Versions 0.1 and 0.2 read a missing {@code test_input} as a list with a null element.
+     */
+    private static List<String> withoutNull(List<String> list) {
+        if (list == null || !list.contains(null)) return list;
+        List<String> result = new ArrayList<>(list);
+        result.removeIf(Objects::isNull);
+        return result;
+    }
+}
@@ -28,24 +28,41 @@
  */
 package io.bioimage.specification.io;
 
+import io.bioimage.specification.AuthorSpecification;
+import io.bioimage.specification.DefaultAuthorSpecification;
 import io.bioimage.specification.DefaultModelSpecification;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.bioimage.specification.io.SpecificationWriter.modelFileName;
 
 public class SpecificationReader {
 
+    private final static String idFormatVersion = "format_version";
+    private final static String idAuthors = "authors";
+    private final static String idCollection = "collection";
+
     public static boolean readFromZIP(File zippedModel, DefaultModelSpecification specification) {
-        try {
-            return read(SpecificationWriter.extractFile(zippedModel, modelFileName), specification);
+        try (ModelPackage modelPackage = ModelPackage.open(zippedModel);
+             InputStream stream = modelPackage.openEntry(modelFileName)) {
+            return read(stream, specification);
         } catch (IOException e) {
             e.printStackTrace();
             return false;
@@ -72,27 +89,271 @@ public class SpecificationReader {
         }
     }
 
+    /**
+     * Reads the specification on a shared, bounded pool of I/O threads.
+     * @see #readAsync(Path, Executor)
+     */
+    public static CompletableFuture<DefaultModelSpecification> readAsync(Path modelSpecificationPath) {
+        return readAsync(modelSpecificationPath, AsyncIO.getDefaultExecutor());
+    }
+
+    /**
+     * Reads the specification without blocking the calling thread.
+     * Cancelling the returned future interrupts the read if it already started.
+     * @return a future completed with the specification, or exceptionally with an {@link IOException}
+     * if the file cannot be read or its format version is not supported
+     */
+    public static CompletableFuture<DefaultModelSpecification> readAsync(Path modelSpecificationPath, Executor executor) {
+        return AsyncIO.supply(() -> {
+            DefaultModelSpecification specification = new DefaultModelSpecification();
+            if (!readStreaming(modelSpecificationPath, specification)) {
+                throw new IOException("Unsupported model specification in " + modelSpecificationPath);
+            }
+            return specification;
+        }, executor);
+    }
+
     public static boolean read(InputStream stream, DefaultModelSpecification specification) throws IOException {
-        Yaml yaml = new Yaml();
-        Map<String, Object> obj = yaml.load(stream);
-        if (obj == null) return false;
+        return SpecificationCodec.getDefault().read(stream, specification);
+    }
+
+    /**
+     * Reads the specification directly from YAML parser events without building an intermediate {@link Map} tree.
+     * Falls back to {@link #read(File, DefaultModelSpecification)} for documents using anchors and aliases.
+     */
+    public static boolean readStreaming(File modelSpecificationFile, DefaultModelSpecification specification) throws IOException {
+        return readStreaming(modelSpecificationFile.toPath(), specification);
+    }
+
+    /**
+     * Reads the specification directly from YAML parser events without building an intermediate {@link Map} tree.
+     * Falls back to {@link #read(Path, DefaultModelSpecification)} for documents using anchors and aliases.
+     */
+    public static boolean readStreaming(Path modelSpecificationPath, DefaultModelSpecification specification) throws IOException {
+        try (InputStream stream = Files.newInputStream(modelSpecificationPath)) {
+            return readStreaming(stream, specification);
+        } catch (SpecificationEventReader.UnsupportedDocumentException e) {
+            return read(modelSpecificationPath, specification);
+        }
+    }
+
+    /**
+     * Reads the specification directly from YAML parser events without building an intermediate {@link Map} tree.
+     * Documents using anchors and aliases are not supported by this method, an {@link IOException} is thrown for them.
+     */
+    public static boolean readStreaming(InputStream stream, DefaultModelSpecification specification) throws IOException {
+        return SpecificationCodec.getDefault().readStreaming(stream, specification);
+    }
+
+    public static boolean readJson(Path modelSpecificationPath, DefaultModelSpecification specification) throws IOException {
+        try (Reader reader = Files.newBufferedReader(modelSpecificationPath, StandardCharsets.UTF_8)) {
+            return readJson(reader, specification);
+        }
+    }
+
+    public static boolean readJson(InputStream stream, DefaultModelSpecification specification) throws IOException {
+        return readJson(new InputStreamReader(stream, StandardCharsets.UTF_8), specification);
+    }
+
+    /**
+     * Reads a specification in JSON format (e.g. rdf.json), the content is interpreted the same way as the YAML format.
+     */
+    public static boolean readJson(Reader reader, DefaultModelSpecification specification) throws IOException {
+        JsonReader jsonReader = new JsonReader(reader);
+        Object obj = jsonReader.readValue();
+        jsonReader.expect(JsonReader.Token.END_DOCUMENT);
+        if (!(obj instanceof Map)) return false;
+        return readJsonObject(obj, specification);
+    }
+
+    /**
+     * Reads the specifications of a JSON collection file, either an array of specifications or an object listing them
+     * in its {@code collection} entry. The entries are parsed one after the other while streaming through the file,
+     * entries which are no specification of a supported format version are skipped.
+     */
+    public static List<DefaultModelSpecification> readJsonCollection(InputStream stream) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        List<DefaultModelSpecification> specifications = new ArrayList<>();
+        if (reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+            reader.next();
+            while (reader.peek() == JsonReader.Token.NAME) {
+                reader.next();
+                if (idCollection.equals(reader.text()) && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                    readJsonCollectionEntries(reader, specifications);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.expect(JsonReader.Token.END_OBJECT);
+        } else {
+            readJsonCollectionEntries(reader, specifications);
+        }
+        reader.expect(JsonReader.Token.END_DOCUMENT);
+        return specifications;
+    }
+
+    private static void readJsonCollectionEntries(JsonReader reader, List<DefaultModelSpecification> specifications) throws IOException {
+        reader.expect(JsonReader.Token.BEGIN_ARRAY);
+        while (reader.peek() != JsonReader.Token.END_ARRAY) {
+            Object entry = reader.readValue();
+            if (!(entry instanceof Map)) continue;
+            DefaultModelSpecification specification = new DefaultModelSpecification();
+            if (readJsonObject(entry, specification)) {
+                specifications.add(specification);
+            }
+        }
+        reader.next();
+    }
+
+    private static boolean readJsonObject(Object json, DefaultModelSpecification specification) throws IOException {
+        // the JsonReader reads objects into maps with string keys
+        @SuppressWarnings("unchecked")
+        Map<String, Object> obj = (Map<String, Object>) json;
+        Object version = obj.get(idFormatVersion);
+        String formatVersion = version == null ? null : version.toString();
+        if (SpecificationReaderWriterV1.canRead(formatVersion) || SpecificationReaderWriterV2.canRead(formatVersion)) {
+            // in YAML, authors of these versions are typed objects, JSON only has plain objects
+            Object authors = obj.get(idAuthors);
+            if (authors instanceof List) {
+                List<Object> converted = new ArrayList<>();
+                for (Object author : (List<?>) authors) {
+                    converted.add(author instanceof Map ? readJsonAuthor((Map<?, ?>) author) : author);
+                }
+                obj.put(idAuthors, converted);
+            }
+        }
         return read(obj, specification);
     }
 
-    private static boolean read(Map<String, Object> obj, DefaultModelSpecification specification) throws IOException {
-        if (SpecificationReaderWriterV4.canRead(obj)) {
+    private static AuthorSpecification readJsonAuthor(Map<?, ?> data) {
+        // values of other types, e.g. a numeric name, are read as their string representation
+        AuthorSpecification author = new DefaultAuthorSpecification();
+        author.setName(Objects.toString(data.get("name"), null));
+        author.setAffiliation(Objects.toString(data.get("affiliation"), null));
+        author.setOrcId(Objects.toString(data.containsKey("orcId") ? data.get("orcId") : data.get("orcid"), null));
+        author.setEmail(Objects.toString(data.get("email"), null));
+        author.setGithubUser(Objects.toString(data.containsKey("githubUser") ? data.get("githubUser") : data.get("github_user"), null));
+        return author;
+    }
+
+    /**
+     * Detects the format version of a specification without parsing the whole document.
+     * Only the top level keys in front of {@code format_version} are scanned, which allows to route or reject
+     * documents before reading them.
+     * @return the format version or null if the file is no YAML mapping or has no format version
+     */
+    public static String readFormatVersion(Path modelSpecificationPath) throws IOException {
+        try (InputStream stream = Files.newInputStream(modelSpecificationPath)) {
+            return readFormatVersion(stream);
+        }
+    }
+
+    public static String readFormatVersion(File modelSpecificationFile) throws IOException {
+        return readFormatVersion(modelSpecificationFile.toPath());
+    }
+
+    /**
+     * @see #readFormatVersion(Path)
+     */
+    public static String readFormatVersion(InputStream stream) throws IOException {
+        return SpecificationCodec.getDefault().readFormatVersion(stream);
+    }
+
+    /**
+     * @return true if specifications of the given format version can be read
+     */
+    public static boolean canRead(String formatVersion) {
+        return SpecificationReaderWriterV4.canRead(formatVersion)
+                || SpecificationReaderWriterV3.canRead(formatVersion)
+                || SpecificationReaderWriterV2.canRead(formatVersion)
+                || SpecificationReaderWriterV1.canRead(formatVersion);
+    }
+
+    /**
+     * Reads all specifications below {@code root} in parallel on the shared I/O pool of the asynchronous read methods.
+     * @see #readAll(Path, Executor)
+     */
+    public static List<SpecificationReadResult> readAll(Path root) throws IOException, InterruptedException {
+        return readAll(root, AsyncIO.getDefaultExecutor());
+    }
+
+    /**
+     * Discovers every rdf.yaml and every zipped model (a ZIP file containing an rdf.yaml) below {@code root}
+     * and reads them in parallel on the given executor.
+     * A file which cannot be read does not abort the scan, its error is reported in its result instead.
+     * @return one result per discovered specification, in the order the files were discovered
+     */
+    public static List<SpecificationReadResult> readAll(Path root, Executor executor) throws IOException, InterruptedException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.walk(root)) {
+            paths = files.filter(SpecificationReader::isSpecificationCandidate).collect(Collectors.toList());
+        }
+        List<CompletableFuture<SpecificationReadResult>> futures = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            futures.add(CompletableFuture.supplyAsync(() -> readResult(path), executor));
+        }
+        List<SpecificationReadResult> results = new ArrayList<>(paths.size());
+        for (CompletableFuture<SpecificationReadResult> future : futures) {
+            try {
+                SpecificationReadResult result = future.get();
+                if (result != null) results.add(result);
+            } catch (ExecutionException e) {
+                // readResult reports the failures of a file in its result, this is e.g. an OutOfMemoryError
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IOException(cause);
+            }
+        }
+        return results;
+    }
+
+    private static boolean isSpecificationCandidate(Path path) {
+        if (!Files.isRegularFile(path)) return false;
+        String name = path.getFileName().toString();
+        return name.equals(modelFileName) || name.toLowerCase().endsWith(".zip");
+    }
+
+    private static SpecificationReadResult readResult(Path path) {
+        try {
+            DefaultModelSpecification specification;
+            if (path.getFileName().toString().equals(modelFileName)) {
+                specification = new DefaultModelSpecification();
+                if (!readStreaming(path, specification)) {
+                    throw new IOException("Unsupported model specification in " + path);
+                }
+            } else {
+                try (ModelPackage modelPackage = ModelPackage.open(path)) {
+                    // ZIP files without specification, e.g. zipped weights, are no models
+                    if (!modelPackage.contains(modelFileName)) return null;
+                    specification = modelPackage.getSpecification();
+                }
+            }
+            return new SpecificationReadResult(path, specification, null);
+        } catch (Exception | StackOverflowError e) {
+            // a deeply nested document can overflow the stack of the parser, which must not abort the scan either,
+            // other errors like an OutOfMemoryError are not specific to the file and are propagated
+            return new SpecificationReadResult(path, null, e);
+        }
+    }
+
+    static boolean read(Map<String, Object> obj, DefaultModelSpecification specification) throws IOException {
+        Object version = obj.get(idFormatVersion);
+        String formatVersion = version == null ? null : version.toString();
+        if (SpecificationReaderWriterV4.canRead(formatVersion)) {
             SpecificationReaderWriterV4.read(specification, obj);
             return true;
         }
-        if (SpecificationReaderWriterV3.canRead(obj)) {
+        if (SpecificationReaderWriterV3.canRead(formatVersion)) {
             SpecificationReaderWriterV3.read(specification, obj);
             return true;
         }
-        if (SpecificationReaderWriterV2.canRead(obj)) {
+        if (SpecificationReaderWriterV2.canRead(formatVersion)) {
             SpecificationReaderWriterV2.read(specification, obj);
             return true;
         }
-        if (SpecificationReaderWriterV1.canRead(obj)) {
+        if (SpecificationReaderWriterV1.canRead(formatVersion)) {
             SpecificationReaderWriterV1.read(specification, obj);
             return true;
         }
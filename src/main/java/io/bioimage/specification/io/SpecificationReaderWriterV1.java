@@ -131,21 +131,21 @@ class SpecificationReaderWriterV1 {
         }
     }
 
-    private static void readTraining(DefaultModelSpecification specification, Map<String, Object> obj) {
+    static void readTraining(DefaultModelSpecification specification, Map<String, Object> obj) {
         Map<String, Object> training = asMap(obj.get(idTraining));
         if (training == null) return;
         String trainingSource = (String) training.get(idTrainingSource);
         Map<String, Object> trainingKwargs = asMap(training.get(idTrainingKwargs));
-        Map<String, Object> config = new HashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
         training.put(idTrainingSource, trainingSource);
         training.put(idTrainingKwargs, trainingKwargs);
-        Map<String, Object> fijiConfig = new HashMap<>();
+        Map<String, Object> fijiConfig = new LinkedHashMap<>();
         fijiConfig.put(idTraining, training);
         config.put(idFijiConfig, fijiConfig);
         specification.setConfig(config);
     }
 
-    private static void readPrediction(DefaultModelSpecification specification, Map<String, Object> obj) {
+    static void readPrediction(DefaultModelSpecification specification, Map<String, Object> obj) {
         Map<String, Object> prediction = asMap(obj.get(idPrediction));
         if (prediction != null) {
             Map<String, Object> preprocess = asMap(prediction.get(idPredictionPreprocess));
@@ -277,7 +277,7 @@ class SpecificationReaderWriterV1 {
 
     private static Map<String, Object> writeInputNode(InputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         if (node.getShapeMin() != null) shape.put(idNodeShapeMin, node.getShapeMin());
         if (node.getShapeStep() != null) shape.put(idNodeShapeStep, node.getShapeStep());
         res.put(idNodeShape, shape);
@@ -286,7 +286,7 @@ class SpecificationReaderWriterV1 {
 
     private static Map<String, Object> writeOutputNode(OutputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         shape.put(idNodeShapeReferenceInput, node.getReferenceInputName());
         shape.put(idNodeShapeScale, node.getShapeScale());
         shape.put(idNodeShapeOffset, node.getShapeOffset());
@@ -314,10 +314,10 @@ class SpecificationReaderWriterV1 {
         }
         ZeroMeanUnitVarianceTransformation zeroMean = (ZeroMeanUnitVarianceTransformation) transformation;
         Map<String, Object> prediction = new LinkedHashMap<>();
-        Map<String, Object> kwargs = new HashMap<>();
+        Map<String, Object> kwargs = new LinkedHashMap<>();
         kwargs.put(idTransformationMean, zeroMean.getMean());
         kwargs.put(idTransformationStd, zeroMean.getStd());
-        Map<String, Object> transform = new HashMap<>();
+        Map<String, Object> transform = new LinkedHashMap<>();
         transform.put(idTrainingKwargs, kwargs);
         prediction.put(idPredictionPreprocess, transform);
         data.put(idPrediction, prediction);
@@ -333,7 +333,10 @@ class SpecificationReaderWriterV1 {
 
 
     public static boolean canRead(Map<String, Object> obj) {
-        String version = (String) obj.get(idFormatVersion);
+        return canRead((String) obj.get(idFormatVersion));
+    }
+
+    static boolean canRead(String version) {
         return Objects.equals(version, "0.1.0");
     }
 
@@ -153,21 +153,21 @@ class SpecificationReaderWriterV2 {
         }
     }
 
-    private static void readTraining(DefaultModelSpecification specification, Map<String, Object> obj) {
+    static void readTraining(DefaultModelSpecification specification, Map<String, Object> obj) {
         Map<String, Object> training = asMap(obj.get(idTraining));
         if (training == null) return;
         String trainingSource = (String) training.get(idTrainingSource);
         Map<String, Object> trainingKwargs = asMap(training.get(idTrainingKwargs));
-        Map<String, Object> config = new HashMap<>();
+        Map<String, Object> config = new LinkedHashMap<>();
         training.put(idTrainingSource, trainingSource);
         training.put(idTrainingKwargs, trainingKwargs);
-        Map<String, Object> fijiConfig = new HashMap<>();
+        Map<String, Object> fijiConfig = new LinkedHashMap<>();
         fijiConfig.put(idTraining, training);
         config.put(idFijiConfig, fijiConfig);
         specification.setConfig(config);
     }
 
-    private static void readPrediction(ModelSpecification specification, Map<String, Object> obj) {
+    static void readPrediction(ModelSpecification specification, Map<String, Object> obj) {
         Map<String, Object> prediction = asMap(obj.get(idPrediction));
         if (prediction == null) return;
         List allpreprocess = (List) prediction.get(idPredictionPreprocess);
@@ -300,7 +300,7 @@ class SpecificationReaderWriterV2 {
 
     private static Map<String, Object> writeInputNode(InputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         if (node.getShapeMin() != null) shape.put(idNodeShapeMin, node.getShapeMin());
         if (node.getShapeStep() != null) shape.put(idNodeShapeStep, node.getShapeStep());
         res.put(idNodeShape, shape);
@@ -309,7 +309,7 @@ class SpecificationReaderWriterV2 {
 
     private static Map<String, Object> writeOutputNode(OutputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         shape.put(idNodeShapeReferenceInput, node.getReferenceInputName());
         shape.put(idNodeShapeScale, node.getShapeScale());
         shape.put(idNodeShapeOffset, node.getShapeOffset());
@@ -337,10 +337,10 @@ class SpecificationReaderWriterV2 {
         }
         ZeroMeanUnitVarianceTransformation zeroMean = (ZeroMeanUnitVarianceTransformation) transformation;
         Map<String, Object> prediction = new LinkedHashMap<>();
-        Map<String, Object> kwargs = new HashMap<>();
+        Map<String, Object> kwargs = new LinkedHashMap<>();
         kwargs.put(idTransformationMean, Collections.singletonList(zeroMean.getMean()));
         kwargs.put(idTransformationStd, Collections.singletonList(zeroMean.getStd()));
-        Map<String, Object> transform = new HashMap<>();
+        Map<String, Object> transform = new LinkedHashMap<>();
         transform.put(idTrainingKwargs, kwargs);
         prediction.put(idPredictionPreprocess, Collections.singletonList(transform));
         data.put(idPrediction, prediction);
@@ -355,7 +355,10 @@ class SpecificationReaderWriterV2 {
     }
 
     public static boolean canRead(Map<String, Object> obj) {
-        String version = (String) obj.get(idFormatVersion);
+        return canRead((String) obj.get(idFormatVersion));
+    }
+
+    static boolean canRead(String version) {
         return Objects.equals(version, "0.2.1-csbdeep")
                 || Objects.equals(version, "0.2.0-csbdeep");
     }
@@ -424,7 +424,7 @@ class SpecificationReaderWriterV3 {
         Map<String, Object> weights = new LinkedHashMap<>();
         if (specification.getWeights() != null) {
             for (Map.Entry<String, WeightsSpecification> weightEntry : specification.getWeights().entrySet()) {
-                Map<String, Object> weightData = new HashMap<>();
+                Map<String, Object> weightData = new LinkedHashMap<>();
                 weightData.put(idWeightsSource, weightEntry.getValue().getSource());
                 weightData.put(idWeightsHash, weightEntry.getValue().getSha256());
                 if (weightEntry.getValue() instanceof TensorFlowSavedModelBundleSpecification) {
@@ -491,7 +491,7 @@ class SpecificationReaderWriterV3 {
             return null;
         }
         for(AuthorSpecification authorSpec : specification.getAuthors()){
-            Map<String, Object> author = new HashMap<>();
+            Map<String, Object> author = new LinkedHashMap<>();
             author.put(idAuthorName, authorSpec.getName());
             author.put(idAuthorOrcid, authorSpec.getOrcId());
             author.put(idAuthorAffiliation, authorSpec.getAffiliation());
@@ -502,7 +502,7 @@ class SpecificationReaderWriterV3 {
 
 
     private static Map<String, Object> buildParent(ModelSpecification specification) {
-        Map<String, Object> parent = new HashMap<>();
+        Map<String, Object> parent = new LinkedHashMap<>();
         if (specification.getParent() == null) {
             return null;
         }
@@ -553,7 +553,7 @@ class SpecificationReaderWriterV3 {
 
     private static Map<String, Object> writeInputNode(InputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         if (node.getShapeMin() != null) shape.put(idNodeShapeMin, node.getShapeMin());
         if (node.getShapeStep() != null) shape.put(idNodeShapeStep, node.getShapeStep());
         res.put(idNodeShape, shape);
@@ -565,7 +565,7 @@ class SpecificationReaderWriterV3 {
 
     private static Map<String, Object> writeOutputNode(OutputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         shape.put(idNodeShapeReferenceInput, node.getReferenceInputName());
         shape.put(idNodeShapeScale, node.getShapeScale());
         shape.put(idNodeShapeOffset, node.getShapeOffset());
@@ -637,8 +637,11 @@ class SpecificationReaderWriterV3 {
     }
 
     public static boolean canRead(Map<String, Object> obj) {
-        String version = (String) obj.get(idFormatVersion);
-        return version.startsWith("0.3.");
+        return canRead((String) obj.get(idFormatVersion));
+    }
+
+    static boolean canRead(String version) {
+        return version != null && version.startsWith("0.3.");
     }
 
     static boolean canWrite(ModelSpecification specification) {
@@ -206,15 +206,7 @@ class SpecificationReaderWriterV4 {
                 }
             }
         }
-        specification.setPackaged_by((List<AuthorSpecification>) obj.get(idPackagedBy));
-        List<Object> packaged_by = (List<Object>) obj.get(idMaintainers);
-        if (packaged_by != null && List.class.isAssignableFrom(packaged_by.getClass())) {
-            if(!packaged_by.isEmpty() && Map.class.isAssignableFrom(packaged_by.get(0).getClass())){
-                for(Object packager : packaged_by){
-                    specification.addPackagedBy(readAuthor((Map) packager));
-                }
-            }
-        }
+        specification.setPackaged_by(readAuthorList(obj.get(idPackagedBy)));
         specification.setDocumentation((String) obj.get(idDocumentation));
         specification.setTags((List<String>) obj.get(idTags));
         specification.setLicense((String) obj.get(idLicense));
@@ -229,7 +221,6 @@ class SpecificationReaderWriterV4 {
         specification.setDependencies((String) obj.get(idDependencies));
         specification.setParent(parseParent(obj));
         specification.setDownloadUrl((String) obj.get(idDownloadUrl));
-        specification.setBadges((List<BadgeSpecification>) obj.get(idBadges));
         specification.setIcon((String) obj.get(idIcon));
         specification.setLinks((List<String>) obj.get(idLinks));
         specification.setRunMode((String) obj.get(idRunMode));
@@ -243,6 +234,20 @@ class SpecificationReaderWriterV4 {
         return badge;
     }
 
+    private static List<AuthorSpecification> readAuthorList(Object data) {
+        if (data == null || !List.class.isAssignableFrom(data.getClass())) return null;
+        List<AuthorSpecification> authors = new ArrayList<>();
+        for (Object author : (List<Object>) data) {
+            if (author == null) continue;
+            if (Map.class.isAssignableFrom(author.getClass())) {
+                authors.add(readAuthor((Map) author));
+            } else {
+                authors.add(new DefaultAuthorSpecification(author.toString()));
+            }
+        }
+        return authors;
+    }
+
     private static AuthorSpecification readAuthor(Map data) {
         AuthorSpecification author = new DefaultAuthorSpecification();
         author.setName((String) data.get(idAuthorName));
@@ -345,42 +350,53 @@ class SpecificationReaderWriterV4 {
     }
 
     private static TransformationSpecification readTransformation(Map data) throws IOException {
-        Map<String, Object> kwargs = asMap(data.get(idTransformationKwargs));
         Object transformation = data.get(idTransformationName);
         if (transformation == null) throw new IOException("Can't find name of transformation " + data);
-        switch ((String) transformation) {
+        return readTransformation((String) transformation, asMap(data.get(idTransformationKwargs)));
+    }
+
+    static TransformationSpecification readTransformation(String transformation, Map<String, Object> kwargs) throws IOException {
+        return readTransformation(transformation, kwargs, null);
+    }
+
+    /**
+     * @param recycler provides reused transformation objects, may be null
+     */
+    static TransformationSpecification readTransformation(String transformation, Map<String, Object> kwargs, SpecificationRecycler recycler) throws IOException {
+        if (transformation == null) throw new IOException("Can't find name of transformation with arguments " + kwargs);
+        switch (transformation) {
             case idTransformationBinarize:
-                BinarizeTransformation binarize = new BinarizeTransformation();
+                BinarizeTransformation binarize = SpecificationRecycler.transformation(recycler, BinarizeTransformation.class, BinarizeTransformation::new);
                 binarize.setMode(toMode(kwargs.get(idTransformationMode)));
                 binarize.setThreshold(toNumber(kwargs.get(idTransformationBinarizeThreshold)));
                 return binarize;
             case idTransformationScaleLinear:
-                ScaleLinearTransformation scaleLinear = new ScaleLinearTransformation();
+                ScaleLinearTransformation scaleLinear = SpecificationRecycler.transformation(recycler, ScaleLinearTransformation.class, ScaleLinearTransformation::new);
                 scaleLinear.setMode(toMode(kwargs.get(idTransformationMode)));
                 scaleLinear.setGain(toNumber(kwargs.get(idTransformationScaleLinearGain)));
                 scaleLinear.setOffset(toNumber(kwargs.get(idTransformationScaleLinearOffset)));
                 return scaleLinear;
             case idTransformationZeroMean:
-                ZeroMeanUnitVarianceTransformation zeroMean = new ZeroMeanUnitVarianceTransformation();
+                ZeroMeanUnitVarianceTransformation zeroMean = SpecificationRecycler.transformation(recycler, ZeroMeanUnitVarianceTransformation.class, ZeroMeanUnitVarianceTransformation::new);
                 zeroMean.setMode(toMode(kwargs.get(idTransformationMode)));
                 zeroMean.setMean(toNumber(kwargs.get(idTransformationZeroMeanMean)));
                 zeroMean.setStd(toNumber(kwargs.get(idTransformationZeroMeanStd)));
                 return zeroMean;
             case idTransformationScaleMinMax:
-                ScaleMinMaxTransformation scaleMinMax = new ScaleMinMaxTransformation();
+                ScaleMinMaxTransformation scaleMinMax = SpecificationRecycler.transformation(recycler, ScaleMinMaxTransformation.class, ScaleMinMaxTransformation::new);
                 scaleMinMax.setMode(toMode(kwargs.get(idTransformationMode)));
                 scaleMinMax.setReferenceInput((String) kwargs.get(idTransformationScaleMinMaxReferenceInput));
                 scaleMinMax.setMinPercentile(toNumber(kwargs.get(idTransformationScaleMinMaxMinPercentile)));
                 scaleMinMax.setMaxPercentile(toNumber(kwargs.get(idTransformationScaleMinMaxMaxPercentile)));
                 return scaleMinMax;
             case idTransformationPercentile:
-                PercentileTransformation percentile = new PercentileTransformation();
+                PercentileTransformation percentile = SpecificationRecycler.transformation(recycler, PercentileTransformation.class, PercentileTransformation::new);
                 percentile.setMode(toMode(kwargs.get(idTransformationMode)));
                 percentile.setMinPercentile(toNumber(kwargs.get(idTransformationPercentileMinPercentile)));
                 percentile.setMaxPercentile(toNumber(kwargs.get(idTransformationPercentileMaxPercentile)));
                 return percentile;
             case idTransformationClip:
-                ClipTransformation clip = new ClipTransformation();
+                ClipTransformation clip = SpecificationRecycler.transformation(recycler, ClipTransformation.class, ClipTransformation::new);
                 clip.setMode(toMode(kwargs.get(idTransformationMode)));
                 clip.setMin(toNumber(kwargs.get(idTransformationClipMin)));
                 clip.setMax(toNumber(kwargs.get(idTransformationClipMax)));
@@ -465,7 +481,7 @@ class SpecificationReaderWriterV4 {
         Map<String, Object> weights = new LinkedHashMap<>();
         if (specification.getWeights() != null) {
             for (Map.Entry<String, WeightsSpecification> weightEntry : specification.getWeights().entrySet()) {
-                Map<String, Object> weightData = new HashMap<>();
+                Map<String, Object> weightData = new LinkedHashMap<>();
                 weightData.put(idWeightsSource, weightEntry.getValue().getSource());
                 weightData.put(idWeightsHash, weightEntry.getValue().getSha256());
                 if (weightEntry.getValue() instanceof TensorFlowSavedModelBundleSpecification) {
@@ -507,7 +523,7 @@ class SpecificationReaderWriterV4 {
         data.put(idName, specification.getName());
         data.put(idTimestamp, specification.getTimestamp());
         data.put(idDescription, specification.getDescription());
-        data.put(idAuthors, buildAuthorList(specification));
+        data.put(idAuthors, buildAuthorList(specification.getAuthors()));
         data.put(idCite, buildCitationList(specification));
         data.put(idDocumentation, specification.getDocumentation());
         data.put(idTags, specification.getTags());
@@ -524,13 +540,13 @@ class SpecificationReaderWriterV4 {
         data.put(idParent, buildParent(specification));
         data.put(idVersion, specification.getVersion());
         data.put(idType, specification.getType());
-        data.put(idMaintainers, buildMaintainerList(specification));
+        data.put(idMaintainers, buildAuthorList(specification.getMaintainers()));
         data.put(idRunMode, specification.getRunMode());
         data.put(idBadges, buildBadges(specification));
         data.put(idIcon, specification.getIcon());
         data.put(idLinks, specification.getLinks());
         data.put(idDownloadUrl, specification.getDownloadUrl());
-        data.put(idPackagedBy, specification.getPackagedBy());
+        data.put(idPackagedBy, buildAuthorList(specification.getPackagedBy()));
     }
 
     private static List<Map<String, Object>> buildBadges(ModelSpecification specification) {
@@ -539,7 +555,7 @@ class SpecificationReaderWriterV4 {
             return null;
         }
         for(BadgeSpecification badgeSpec : specification.getBadges()){
-            Map<String, Object> badge = new HashMap<>();
+            Map<String, Object> badge = new LinkedHashMap<>();
             badge.put(idBadgeLabel, badgeSpec.getLabel());
             badge.put(idBadgeIcon, badgeSpec.getIcon());
             badge.put(idBadgeUrl, badgeSpec.getUrl());
@@ -548,30 +564,13 @@ class SpecificationReaderWriterV4 {
         return badges;
     }
 
-    private static List<Map<String, Object>> buildAuthorList(ModelSpecification specification) {
-        List<Map<String, Object>> authors = new ArrayList<>();
-        if (specification.getAuthors() == null) {
+    private static List<Map<String, Object>> buildAuthorList(List<AuthorSpecification> authorSpecs) {
+        if (authorSpecs == null) {
             return null;
         }
-        for(AuthorSpecification authorSpec : specification.getAuthors()){
-            Map<String, Object> author = new HashMap<>();
-            author.put(idAuthorName, authorSpec.getName());
-            author.put(idAuthorOrcid, authorSpec.getOrcId());
-            author.put(idAuthorAffiliation, authorSpec.getAffiliation());
-            author.put(idAuthorEmail, authorSpec.getEmail());
-            author.put(idAuthorGithubUser, authorSpec.getGithubUser());
-            authors.add(author);
-        }
-        return authors;
-    }
-
-    private static List<Map<String, Object>> buildMaintainerList(ModelSpecification specification) {
         List<Map<String, Object>> authors = new ArrayList<>();
-        if (specification.getMaintainers() == null) {
-            return null;
-        }
-        for(AuthorSpecification authorSpec : specification.getMaintainers()){
-            Map<String, Object> author = new HashMap<>();
+        for(AuthorSpecification authorSpec : authorSpecs){
+            Map<String, Object> author = new LinkedHashMap<>();
             author.put(idAuthorName, authorSpec.getName());
             author.put(idAuthorOrcid, authorSpec.getOrcId());
             author.put(idAuthorAffiliation, authorSpec.getAffiliation());
@@ -584,7 +583,7 @@ class SpecificationReaderWriterV4 {
 
 
     private static Map<String, Object> buildParent(ModelSpecification specification) {
-        Map<String, Object> parent = new HashMap<>();
+        Map<String, Object> parent = new LinkedHashMap<>();
         if (specification.getParent() == null) {
             return null;
         }
@@ -635,7 +634,7 @@ class SpecificationReaderWriterV4 {
 
     private static Map<String, Object> writeInputNode(InputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         if (node.getShapeMin() != null) shape.put(idNodeShapeMin, node.getShapeMin());
         if (node.getShapeStep() != null) shape.put(idNodeShapeStep, node.getShapeStep());
         res.put(idNodeShape, shape);
@@ -647,7 +646,7 @@ class SpecificationReaderWriterV4 {
 
     private static Map<String, Object> writeOutputNode(OutputNodeSpecification node) {
         Map<String, Object> res = writeNode(node);
-        Map<String, Object> shape = new HashMap<>();
+        Map<String, Object> shape = new LinkedHashMap<>();
         shape.put(idNodeShapeReferenceInput, node.getReferenceInputName());
         shape.put(idNodeShapeScale, node.getShapeScale());
         shape.put(idNodeShapeOffset, node.getShapeOffset());
@@ -719,8 +718,11 @@ class SpecificationReaderWriterV4 {
     }
 
     public static boolean canRead(Map<String, Object> obj) {
-        String version = (String) obj.get(idFormatVersion);
-        return version.startsWith("0.4.");
+        return canRead((String) obj.get(idFormatVersion));
+    }
+
+    static boolean canRead(String version) {
+        return version != null && version.startsWith("0.4.");
     }
 
     static boolean canWrite(ModelSpecification specification) {
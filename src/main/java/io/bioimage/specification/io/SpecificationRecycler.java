@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultInputNodeSpecification;
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.DefaultOutputNodeSpecification;
+import io.bioimage.specification.InputNodeSpecification;
+import io.bioimage.specification.OutputNodeSpecification;
+import io.bioimage.specification.TransformationSpecification;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the node and transformation objects of a specification before it is reset,
+ * so that the event reader can fill them again instead of allocating new ones. Not thread-safe.
+ */
+class SpecificationRecycler {
+
+    private final ArrayDeque<DefaultInputNodeSpecification> inputNodes = new ArrayDeque<>();
+    private final ArrayDeque<DefaultOutputNodeSpecification> outputNodes = new ArrayDeque<>();
+    private final Map<Class<?>, ArrayDeque<TransformationSpecification>> transformations = new HashMap<>();
+
+    /**
+     * Takes over the nodes and transformations of the specification, which must not be used elsewhere anymore.
+     */
+    void recycle(DefaultModelSpecification specification) {
+        if (specification.getInputNodes() != null) {
+            for (InputNodeSpecification node : specification.getInputNodes()) {
+                if (node == null || node.getClass() != DefaultInputNodeSpecification.class) continue;
+                recycle(node.getPreprocessing());
+                inputNodes.add((DefaultInputNodeSpecification) node);
+            }
+        }
+        if (specification.getOutputNodes() != null) {
+            for (OutputNodeSpecification node : specification.getOutputNodes()) {
+                if (node == null || node.getClass() != DefaultOutputNodeSpecification.class) continue;
+                recycle(node.getPostprocessing());
+                outputNodes.add((DefaultOutputNodeSpecification) node);
+            }
+        }
+    }
+
+    private void recycle(List<TransformationSpecification> transformations) {
+        if (transformations == null) return;
+        for (TransformationSpecification transformation : transformations) {
+            if (transformation == null) continue;
+            this.transformations.computeIfAbsent(transformation.getClass(), c -> new ArrayDeque<>()).add(transformation);
+        }
+    }
+
+    DefaultInputNodeSpecification inputNode() {
+        DefaultInputNodeSpecification node = inputNodes.poll();
+        if (node == null) return new DefaultInputNodeSpecification();
+        node.reset();
+        return node;
+    }
+
+    DefaultOutputNodeSpecification outputNode() {
+        DefaultOutputNodeSpecification node = outputNodes.poll();
+        if (node == null) return new DefaultOutputNodeSpecification();
+        node.reset();
+        return node;
+    }
+
+    /**
+     * The caller has to set all properties of the returned transformation, it is not reset.
+     */
+    <T extends TransformationSpecification> T transformation(Class<T> type, Supplier<T> factory) {
+        ArrayDeque<TransformationSpecification> recycled = transformations.get(type);
+        TransformationSpecification transformation = recycled != null ? recycled.poll() : null;
+        return transformation != null ? type.cast(transformation) : factory.get();
+    }
+
+    static <T extends TransformationSpecification> T transformation(SpecificationRecycler recycler, Class<T> type, Supplier<T> factory) {
+        return recycler != null ? recycler.transformation(type, factory) : factory.get();
+    }
+}
@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.yaml.snakeyaml.reader.UnicodeReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+/**
+ * Reads many specifications into a single reused {@link DefaultModelSpecification}, e.g. to extract a few properties
+ * from each rdf.yaml of a large catalog with little garbage. Before each read the specification is reset and its
+ * input nodes, output nodes and transformations are filled again by the next document instead of being allocated.
+ * <p>
+ * The returned specification and all objects reachable from it are only valid until the next read, they must not
+ * be kept, e.g. in an {@link io.bioimage.specification.ImmutableModelSpecification} snapshot. A scanner is not thread-safe.
+ */
+public class SpecificationScanner {
+
+    private final SpecificationCodec codec;
+    private final Predicate<String> keys;
+    private final DefaultModelSpecification specification = new DefaultModelSpecification();
+    private final SpecificationRecycler recycler = new SpecificationRecycler();
+
+    public SpecificationScanner() {
+        this(SpecificationCodec.getDefault(), key -> true);
+    }
+
+    /**
+     * @param keys the top level keys to read, e.g. {@code "name"} or {@code "inputs"}, values of other keys are skipped
+     * without being constructed. {@code format_version} is always read.
+     */
+    public SpecificationScanner(SpecificationCodec codec, Predicate<String> keys) {
+        this.codec = codec;
+        this.keys = keys;
+    }
+
+    /**
+     * Falls back to the tree based reader for documents using anchors and aliases, all keys are read then.
+     * @return the reused specification or null if the format version of the file is not supported
+     */
+    public DefaultModelSpecification read(Path modelSpecificationPath) throws IOException {
+        try (InputStream stream = Files.newInputStream(modelSpecificationPath)) {
+            return read(stream);
+        } catch (SpecificationEventReader.UnsupportedDocumentException e) {
+            try (InputStream stream = Files.newInputStream(modelSpecificationPath)) {
+                prepare();
+                return codec.read(stream, specification) ? specification : null;
+            }
+        }
+    }
+
+    /**
+     * Documents using anchors and aliases are not supported by this method, an {@link IOException} is thrown for them.
+     * @return the reused specification or null if the format version of the document is not supported
+     */
+    public DefaultModelSpecification read(InputStream stream) throws IOException {
+        prepare();
+        return codec.readStreaming(new UnicodeReader(stream), specification, keys, recycler) ? specification : null;
+    }
+
+    private void prepare() {
+        recycler.recycle(specification);
+        specification.reset();
+    }
+}
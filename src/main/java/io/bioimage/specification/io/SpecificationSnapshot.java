@@ -0,0 +1,528 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.AuthorSpecification;
+import io.bioimage.specification.DefaultAuthorSpecification;
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.ModelSpecification;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshots of parsed model specifications, used to skip YAML parsing on warm starts.
+ * <p>
+ * A snapshot file contains any number of specifications, each stored together with the {@link SourceStamp}
+ * of the rdf.yaml it was read from. When reading a snapshot, only entries whose source is unchanged are returned,
+ * stale entries are skipped without being decoded and have to be read from their source again.
+ * <p>
+ * The specifications are stored in the same structure {@link SpecificationWriter#write(ModelSpecification)} produces,
+ * encoded in binary instead of YAML, and are restored with the regular readers of their format version.
+ * Snapshots written by a different snapshot format version are ignored.
+ */
+public class SpecificationSnapshot {
+
+    private final static int magic = 0x42494f53; // "BIOS"
+    private final static int snapshotVersion = 1;
+
+    private final static byte tagNull = 0;
+    private final static byte tagString = 1;
+    private final static byte tagStringRef = 2;
+    private final static byte tagInt = 3;
+    private final static byte tagLong = 4;
+    private final static byte tagDouble = 5;
+    private final static byte tagFloat = 6;
+    private final static byte tagTrue = 7;
+    private final static byte tagFalse = 8;
+    private final static byte tagList = 9;
+    private final static byte tagMap = 10;
+    private final static byte tagDate = 11;
+    private final static byte tagBigInteger = 12;
+    private final static byte tagAuthor = 13;
+
+    /**
+     * Thrown for lengths and references which do not fit the snapshot, the data after them cannot be located.
+     */
+    private static class InvalidSnapshotException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private InvalidSnapshotException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Identifies the state of a source file: its size and modification time and, optionally, the SHA-256 of its content.
+     */
+    public static class SourceStamp {
+
+        private final long size;
+        private final long lastModified;
+        private final byte[] sha256;
+
+        SourceStamp(long size, long lastModified, byte[] sha256) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha256 = sha256;
+        }
+
+        /**
+         * Stamp based on size and modification time, cheap to compute.
+         */
+        public static SourceStamp of(Path source) throws IOException {
+            return new SourceStamp(Files.size(source), Files.getLastModifiedTime(source).toMillis(), null);
+        }
+
+        /**
+         * Stamp which additionally contains the hash of the content, detects changes which preserve size and modification time.
+         */
+        public static SourceStamp ofContent(Path source) throws IOException {
+            SourceStamp stamp = of(source);
+            return new SourceStamp(stamp.size, stamp.lastModified, sha256(source));
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        public boolean hasHash() {
+            return sha256 != null;
+        }
+
+        /**
+         * @return true if the source still matches this stamp, the content hash is only compared if this stamp has one
+         */
+        public boolean matches(Path source) throws IOException {
+            SourceStamp current;
+            try {
+                current = of(source);
+            } catch (NoSuchFileException e) {
+                return false;
+            }
+            if (current.size != size || current.lastModified != lastModified) return false;
+            return sha256 == null || Arrays.equals(sha256, sha256(source));
+        }
+
+        private static byte[] sha256(Path source) throws IOException {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            try (InputStream stream = new DigestInputStream(Files.newInputStream(source), digest)) {
+                byte[] buffer = new byte[8192];
+                while (stream.read(buffer) >= 0) {
+                    // digest is updated while reading
+                }
+            }
+            return digest.digest();
+        }
+    }
+
+    /**
+     * A specification together with the stamp its source had when the specification was read from it.
+     */
+    public static class Entry {
+
+        private final SourceStamp stamp;
+        private final ModelSpecification specification;
+
+        public Entry(SourceStamp stamp, ModelSpecification specification) {
+            this.stamp = stamp;
+            this.specification = specification;
+        }
+
+        /**
+         * Stamps the source before reading it, a change during the read makes the entry stale instead of going unnoticed.
+         * @param hashContent whether the stamp should also contain the hash of the source file
+         * @throws IOException if the file cannot be read or its format version is not supported
+         */
+        public static Entry read(Path source, boolean hashContent) throws IOException {
+            SourceStamp stamp = hashContent ? SourceStamp.ofContent(source) : SourceStamp.of(source);
+            DefaultModelSpecification specification = new DefaultModelSpecification();
+            if (!SpecificationReader.readStreaming(source, specification)) {
+                throw new IOException("Unsupported model specification in " + source);
+            }
+            return new Entry(stamp, specification);
+        }
+
+        public SourceStamp getStamp() {
+            return stamp;
+        }
+
+        public ModelSpecification getSpecification() {
+            return specification;
+        }
+    }
+
+    /**
+     * Writes a snapshot of the given specifications, each with the stamp its source had when it was read.
+     * The snapshot replaces an existing one only once it is complete, see {@link SpecificationWriteBatch}.
+     * @param entries the stamped specifications by the path of the file they were read from
+     */
+    public static void write(Map<Path, Entry> entries, Path snapshot) throws IOException {
+        try (SpecificationWriteBatch batch = new SpecificationWriteBatch(Durability.NONE)) {
+            batch.write(snapshot, channel -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                out.writeInt(magic);
+                out.writeInt(snapshotVersion);
+                out.writeInt(entries.size());
+                for (Map.Entry<Path, Entry> entry : entries.entrySet()) {
+                    writeString(out, entry.getKey().toString());
+                    writeStamp(out, entry.getValue().stamp);
+                    byte[] payload = encode(entry.getValue().specification);
+                    out.writeInt(payload.length);
+                    out.write(payload);
+                }
+                // the batch closes the channel
+                out.flush();
+            });
+        }
+    }
+
+    /**
+     * Reads all entries of the snapshot whose source file did not change since the snapshot was written.
+     * A truncated or corrupt snapshot is not an error, its readable entries are returned and the others have to be read
+     * from their source again.
+     * @return the up to date specifications by the path of their source,
+     * empty if the snapshot does not exist or was written by another snapshot format version
+     */
+    public static Map<Path, DefaultModelSpecification> read(Path snapshot) throws IOException {
+        Map<Path, DefaultModelSpecification> result = new LinkedHashMap<>();
+        if (!Files.exists(snapshot)) return result;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+            if (in.readInt() != magic || in.readInt() != snapshotVersion) return result;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Path source;
+                try {
+                    source = Paths.get(readString(in));
+                } catch (InvalidPathException e) {
+                    return result;
+                }
+                SourceStamp stamp = readStamp(in);
+                byte[] payload = readBytes(in, in.readInt());
+                if (!stamp.matches(source)) continue;
+                DefaultModelSpecification specification = new DefaultModelSpecification();
+                try {
+                    if (decode(payload, specification)) {
+                        result.put(source, specification);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    // a corrupt entry is read from its source again
+                }
+            }
+        } catch (EOFException | InvalidSnapshotException e) {
+            // the entries after the end of a truncated snapshot or after an invalid length cannot be located
+        }
+        return result;
+    }
+
+    /**
+     * Writes a single specification without source stamp.
+     */
+    public static void write(ModelSpecification specification, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(magic);
+        out.writeInt(snapshotVersion);
+        byte[] payload = encode(specification);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+    }
+
+    /**
+     * Reads a single specification written by {@link #write(ModelSpecification, OutputStream)}.
+     * @return false if the snapshot was written by another snapshot format version or its format version cannot be read
+     * @throws IOException if the snapshot is truncated or corrupt
+     */
+    public static boolean read(InputStream stream, DefaultModelSpecification specification) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != magic || in.readInt() != snapshotVersion) return false;
+        byte[] payload = readBytes(in, in.readInt());
+        return decode(payload, specification);
+    }
+
+    private static byte[] encode(ModelSpecification specification) throws IOException {
+        Map<String, Object> data = SpecificationWriter.write(specification);
+        if (data == null) {
+            throw new IOException("Cannot write specification of format version " + specification.getFormatVersion());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeValue(out, data, new HashMap<>());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean decode(byte[] payload, DefaultModelSpecification specification) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            Object data = readValue(in, new ArrayList<>());
+            if (!(data instanceof Map)) throw new IOException("Invalid snapshot entry");
+            // written from the map of SpecificationWriter#write, the keys are strings
+            @SuppressWarnings("unchecked")
+            Map<String, Object> document = (Map<String, Object>) data;
+            return SpecificationReader.read(document, specification);
+        }
+    }
+
+    private static void writeStamp(DataOutputStream out, SourceStamp stamp) throws IOException {
+        out.writeLong(stamp.size);
+        out.writeLong(stamp.lastModified);
+        if (stamp.sha256 == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(stamp.sha256.length);
+            out.write(stamp.sha256);
+        }
+    }
+
+    private static SourceStamp readStamp(DataInputStream in) throws IOException {
+        long size = in.readLong();
+        long lastModified = in.readLong();
+        int hashLength = in.readUnsignedByte();
+        byte[] sha256 = null;
+        if (hashLength > 0) {
+            sha256 = new byte[hashLength];
+            in.readFully(sha256);
+        }
+        return new SourceStamp(size, lastModified, sha256);
+    }
+
+    /**
+     * Repeated strings (most of all map keys) are written once and referenced by index afterwards.
+     */
+    private static void writeValue(DataOutputStream out, Object value, Map<String, Integer> strings) throws IOException {
+        if (value == null) {
+            out.writeByte(tagNull);
+        } else if (value instanceof String) {
+            Integer index = strings.get(value);
+            if (index != null) {
+                out.writeByte(tagStringRef);
+                writeVarInt(out, index);
+            } else {
+                strings.put((String) value, strings.size());
+                out.writeByte(tagString);
+                writeString(out, (String) value);
+            }
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(tagInt);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(tagLong);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(tagDouble);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(tagFloat);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? tagTrue : tagFalse);
+        } else if (value instanceof BigInteger) {
+            out.writeByte(tagBigInteger);
+            byte[] bytes = ((BigInteger) value).toByteArray();
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Date) {
+            out.writeByte(tagDate);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof AuthorSpecification) {
+            // the writers of format versions 0.1 and 0.2 keep authors as objects
+            AuthorSpecification author = (AuthorSpecification) value;
+            out.writeByte(tagAuthor);
+            writeValue(out, author.getName(), strings);
+            writeValue(out, author.getAffiliation(), strings);
+            writeValue(out, author.getOrcId(), strings);
+            writeValue(out, author.getEmail(), strings);
+            writeValue(out, author.getGithubUser(), strings);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(tagList);
+            writeVarInt(out, list.size());
+            for (Object element : list) {
+                writeValue(out, element, strings);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(tagMap);
+            writeVarInt(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey(), strings);
+                writeValue(out, entry.getValue(), strings);
+            }
+        } else {
+            throw new IOException("Cannot write value of type " + value.getClass().getName() + " to snapshot");
+        }
+    }
+
+    private static Object readValue(DataInputStream in, List<String> strings) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case tagNull:
+                return null;
+            case tagString:
+                String string = readString(in);
+                strings.add(string);
+                return string;
+            case tagStringRef:
+                int index = readVarInt(in);
+                if (index < 0 || index >= strings.size()) throw new InvalidSnapshotException("Invalid snapshot string reference " + index);
+                return strings.get(index);
+            case tagInt:
+                return in.readInt();
+            case tagLong:
+                return in.readLong();
+            case tagDouble:
+                return in.readDouble();
+            case tagFloat:
+                return in.readFloat();
+            case tagTrue:
+                return true;
+            case tagFalse:
+                return false;
+            case tagBigInteger:
+                return new BigInteger(readBytes(in, readVarInt(in)));
+            case tagDate:
+                return new Date(in.readLong());
+            case tagAuthor:
+                AuthorSpecification author = new DefaultAuthorSpecification();
+                author.setName((String) readValue(in, strings));
+                author.setAffiliation((String) readValue(in, strings));
+                author.setOrcId((String) readValue(in, strings));
+                author.setEmail((String) readValue(in, strings));
+                author.setGithubUser((String) readValue(in, strings));
+                return author;
+            case tagList:
+                int size = readCount(in);
+                // every element takes at least one byte, a corrupt size cannot allocate more than the payload
+                List<Object> list = new ArrayList<>(Math.min(size, in.available()));
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, strings));
+                }
+                return list;
+            case tagMap:
+                int entries = readCount(in);
+                Map<Object, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < entries; i++) {
+                    Object key = readValue(in, strings);
+                    map.put(key, readValue(in, strings));
+                }
+                return map;
+            default:
+                throw new IOException("Invalid snapshot value tag " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in, readVarInt(in)), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the given number of bytes, growing the array while reading, so that a corrupt length
+     * fails at the end of the snapshot instead of allocating it up front.
+     */
+    private static byte[] readBytes(DataInputStream in, int length) throws IOException {
+        if (length < 0) throw new InvalidSnapshotException("Invalid snapshot length " + length);
+        byte[] bytes = new byte[Math.min(length, 1 << 16)];
+        int offset = 0;
+        while (offset < length) {
+            if (offset == bytes.length) bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            int read = in.read(bytes, offset, bytes.length - offset);
+            if (read < 0) throw new EOFException();
+            offset += read;
+        }
+        return bytes;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readVarInt(in);
+        if (count < 0) throw new InvalidSnapshotException("Invalid snapshot size " + count);
+        return count;
+    }
+
+    /**
+     * Lengths, sizes and string references are written with 7 bits per byte, most of them fit into one byte.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Invalid snapshot length");
+    }
+}
@@ -0,0 +1,302 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.ModelSpecification;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Writes specifications atomically: each file is written to a temporary file next to its target,
+ * which then replaces the target by an atomic rename.
+ * <p>
+ * With {@link Durability#GROUP_COMMIT} the targets are only replaced by {@link #commit()}, which syncs all written files
+ * and then each of their directories once. This avoids the cost of syncing every file on its own when many
+ * specifications are rewritten. With the other levels the target is replaced by each write.
+ * Closing the batch removes the temporary files of writes which were not committed, their targets are left unchanged.
+ * <p>
+ * {@link #writeIfChanged(ModelSpecification, Path)} only writes files whose content differs from the existing file,
+ * the batch keeps track of which files were changed.
+ * <p>
+ * Writes and commits can be called from multiple threads.
+ */
+public class SpecificationWriteBatch implements Closeable {
+
+    interface Content {
+        void write(WritableByteChannel channel) throws IOException;
+    }
+
+    private static class PendingFile {
+        private final Path temporary;
+        private final Path target;
+        // written by writeIfChanged, reported as changed once the target is replaced
+        private final boolean changed;
+
+        private PendingFile(Path temporary, Path target, boolean changed) {
+            this.temporary = temporary;
+            this.target = target;
+            this.changed = changed;
+        }
+    }
+
+    private final Durability durability;
+    private final List<PendingFile> pending = new ArrayList<>();
+    private final List<Path> changedFiles = new ArrayList<>();
+    private final List<Path> unchangedFiles = new ArrayList<>();
+    private boolean closed;
+
+    public SpecificationWriteBatch(Durability durability) {
+        this.durability = durability;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public void write(ModelSpecification specification, Path target) throws IOException {
+        write(target, channel -> ByteBufferWriter.write(channel, writer -> SpecificationCodec.getDefault().write(specification, writer)));
+    }
+
+    /**
+     * Serializes the specification into memory and only writes it if the content of the target differs.
+     * @return true if the target did not exist or had a different content
+     * @see #getChangedFiles()
+     */
+    public boolean writeIfChanged(ModelSpecification specification, Path target) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(content, StandardCharsets.UTF_8)) {
+            SpecificationCodec.getDefault().write(specification, writer);
+        }
+        return writeIfChanged(target, content.toByteArray());
+    }
+
+    boolean writeIfChanged(Path target, byte[] content) throws IOException {
+        if (hasContent(target, content)) {
+            synchronized (this) {
+                unchangedFiles.add(target);
+            }
+            return false;
+        }
+        write(target, channel -> {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }, true);
+        return true;
+    }
+
+    /**
+     * @return the targets of {@link #writeIfChanged(ModelSpecification, Path)} which were replaced,
+     * with {@link Durability#GROUP_COMMIT} only those of committed writes
+     */
+    public synchronized List<Path> getChangedFiles() {
+        return new ArrayList<>(changedFiles);
+    }
+
+    /**
+     * @return the targets of {@link #writeIfChanged(ModelSpecification, Path)} which already had the same content
+     */
+    public synchronized List<Path> getUnchangedFiles() {
+        return new ArrayList<>(unchangedFiles);
+    }
+
+    void write(Path target, Content content) throws IOException {
+        write(target, content, false);
+    }
+
+    private void write(Path target, Content content, boolean changed) throws IOException {
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Batch is closed");
+        }
+        Path temporary = writeTemporary(target, content, durability == Durability.FSYNC);
+        if (durability == Durability.GROUP_COMMIT) {
+            synchronized (this) {
+                if (!closed) {
+                    pending.add(new PendingFile(temporary, target, changed));
+                    return;
+                }
+            }
+            Files.deleteIfExists(temporary);
+            throw new IllegalStateException("Batch is closed");
+        }
+        replace(temporary, target);
+        if (changed) {
+            synchronized (this) {
+                changedFiles.add(target);
+            }
+        }
+        if (durability == Durability.FSYNC) syncDirectory(directory(target));
+    }
+
+    /**
+     * Replaces the targets of all pending writes. With {@link Durability#GROUP_COMMIT} all files are synced to disk
+     * before the first target is replaced, and the directories afterwards.
+     */
+    public void commit() throws IOException {
+        List<PendingFile> files;
+        synchronized (this) {
+            files = new ArrayList<>(pending);
+        }
+        if (files.isEmpty()) return;
+        for (PendingFile file : files) {
+            try (FileChannel channel = FileChannel.open(file.temporary, WRITE)) {
+                channel.force(true);
+            }
+        }
+        Set<Path> directories = new LinkedHashSet<>();
+        for (PendingFile file : files) {
+            replace(file.temporary, file.target);
+            synchronized (this) {
+                pending.remove(file);
+                if (file.changed) changedFiles.add(file.target);
+            }
+            directories.add(directory(file.target));
+        }
+        for (Path directory : directories) {
+            syncDirectory(directory);
+        }
+    }
+
+    /**
+     * Discards pending writes which were not committed.
+     */
+    @Override
+    public void close() throws IOException {
+        List<PendingFile> files;
+        synchronized (this) {
+            closed = true;
+            files = new ArrayList<>(pending);
+            pending.clear();
+        }
+        IOException exception = null;
+        for (PendingFile file : files) {
+            try {
+                Files.deleteIfExists(file.temporary);
+            } catch (IOException e) {
+                if (exception == null) exception = e;
+                else exception.addSuppressed(e);
+            }
+        }
+        if (exception != null) throw exception;
+    }
+
+    private static Path writeTemporary(Path target, Content content, boolean sync) throws IOException {
+        Path temporary = temporaryFile(target);
+        boolean success = false;
+        try (FileChannel channel = FileChannel.open(temporary, CREATE_NEW, WRITE)) {
+            content.write(channel);
+            if (sync) channel.force(true);
+            success = true;
+        } finally {
+            if (!success) Files.deleteIfExists(temporary);
+        }
+        return temporary;
+    }
+
+    /**
+     * Compares the file with the content, without reading more of it than necessary.
+     */
+    static boolean hasContent(Path file, byte[] content) throws IOException {
+        try {
+            if (Files.size(file) != content.length) return false;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (InputStream stream = Files.newInputStream(file)) {
+            byte[] buffer = new byte[8192];
+            int offset = 0;
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                if (offset + read > content.length) return false;
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] != content[offset + i]) return false;
+                }
+                offset += read;
+            }
+            return offset == content.length;
+        }
+    }
+
+    /**
+     * @return a path next to the target, so that it can replace the target by a rename
+     */
+    static Path temporaryFile(Path target) {
+        return directory(target).resolve("." + target.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+    }
+
+    static void replace(Path temporary, Path target) throws IOException {
+        try {
+            Files.move(temporary, target, ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, REPLACE_EXISTING);
+        }
+    }
+
+    private static Path directory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        return directory == null ? file.toAbsolutePath().getRoot() : directory;
+    }
+
+    /**
+     * Makes the renames in the directory durable. Not every platform can open directories, e.g. Windows,
+     * there the rename is as durable as the file system makes it.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -28,34 +28,28 @@
  */
 package io.bioimage.specification.io;
 
+import io.bioimage.specification.ContentHash;
+import io.bioimage.specification.DefaultModelSpecification;
 import io.bioimage.specification.ModelSpecification;
-import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.Constructor;
-import org.yaml.snakeyaml.introspector.Property;
-import org.yaml.snakeyaml.introspector.PropertyUtils;
-import org.yaml.snakeyaml.nodes.NodeTuple;
-import org.yaml.snakeyaml.nodes.Tag;
-import org.yaml.snakeyaml.representer.Representer;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
@@ -64,18 +58,6 @@ public class SpecificationWriter {
 
 	public final static String dependenciesFileName = "dependencies.yaml";
 	final static String modelFileName = "rdf.yaml";
-	static Representer representer = new Representer() {
-		@Override
-		protected NodeTuple representJavaBeanProperty(Object javaBean, Property property, Object propertyValue, Tag customTag) {
-			// if value of property is null, ignore it.
-			if (propertyValue == null) {
-				return null;
-			}
-			else {
-				return super.representJavaBeanProperty(javaBean, property, propertyValue, customTag);
-			}
-		}
-	};
 
 	public static void write(ModelSpecification specification, String targetDirectory) throws IOException {
 		write(specification, new File(targetDirectory));
@@ -83,22 +65,164 @@ public class SpecificationWriter {
 
 	public static void write(ModelSpecification specification, File targetDirectory) throws IOException {
 		writeDependenciesFile(targetDirectory);
+		write(specification, new File(targetDirectory, modelFileName).toPath());
+	}
+
+	/**
+	 * Replaces the file atomically, without syncing it to disk.
+	 * @see #write(ModelSpecification, Path, Durability)
+	 */
+	public static void write(ModelSpecification specification, Path modelSpecificationPath) throws IOException {
+		write(specification, modelSpecificationPath, Durability.NONE);
+	}
+
+	/**
+	 * Writes the specification to a temporary file which then atomically replaces the target, readers see either the
+	 * old or the new file. Use a {@link SpecificationWriteBatch} to sync many files with {@link Durability#GROUP_COMMIT},
+	 * for a single file it is the same as {@link Durability#FSYNC}.
+	 */
+	public static void write(ModelSpecification specification, Path modelSpecificationPath, Durability durability) throws IOException {
+		try (SpecificationWriteBatch batch = new SpecificationWriteBatch(durability)) {
+			batch.write(specification, modelSpecificationPath);
+			batch.commit();
+		}
+	}
+
+	/**
+	 * Writes the specification only if the file does not exist yet or has a different content, see
+	 * {@link SpecificationWriteBatch#writeIfChanged(ModelSpecification, Path)} for writing many files.
+	 * @return true if the file was written
+	 */
+	public static boolean writeIfChanged(ModelSpecification specification, Path modelSpecificationPath) throws IOException {
+		try (SpecificationWriteBatch batch = new SpecificationWriteBatch(Durability.NONE)) {
+			boolean changed = batch.writeIfChanged(specification, modelSpecificationPath);
+			batch.commit();
+			return changed;
+		}
+	}
+
+	/**
+	 * Writes the specification without building the intermediate {@link Map} tree, see
+	 * {@link SpecificationCodec#writeStreaming(ModelSpecification, Writer)}.
+	 */
+	public static void writeStreaming(ModelSpecification specification, Path modelSpecificationPath) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(modelSpecificationPath, StandardCharsets.UTF_8)) {
+			writeStreaming(specification, writer);
+		}
+	}
+
+	public static void writeStreaming(ModelSpecification specification, Writer writer) throws IOException {
+		SpecificationCodec.getDefault().writeStreaming(specification, writer);
+		writer.flush();
+	}
+
+	/**
+	 * Writes a zipped model with the specification and all files it references in the model directory,
+	 * see {@link ModelPackageWriter}.
+	 */
+	public static void writePackage(ModelSpecification specification, Path modelDirectory, Path zipFile) throws IOException {
+		new ModelPackageWriter().write(specification, modelDirectory, zipFile);
+	}
+
+	/**
+	 * Encodes the specification as UTF-8 YAML directly into the buffer, starting at its position,
+	 * without intermediate char or byte arrays. The buffer can be reused for the next specification.
+	 * Like {@link #writeStreaming(ModelSpecification, Writer)}, entries without value are omitted.
+	 * @return the number of bytes written, the position of the buffer is advanced by it
+	 * @throws BufferOverflowException if the remaining buffer is too small, the position of the buffer is then unchanged
+	 */
+	public static int write(ModelSpecification specification, ByteBuffer buffer) throws IOException {
+		return ByteBufferWriter.write(buffer, writer -> SpecificationCodec.getDefault().writeStreaming(specification, writer));
+	}
+
+	/**
+	 * Encodes the specification as UTF-8 YAML into a reused buffer which is written to the channel whenever it is full.
+	 * Like {@link #writeStreaming(ModelSpecification, Writer)}, entries without value are omitted.
+	 * @param channel a channel in blocking mode, it is not closed
+	 * @return the number of bytes written
+	 */
+	public static long write(ModelSpecification specification, WritableByteChannel channel) throws IOException {
+		return ByteBufferWriter.write(channel, writer -> SpecificationCodec.getDefault().writeStreaming(specification, writer));
+	}
+
+	/**
+	 * Writes the specification on a shared, bounded pool of I/O threads.
+	 * @see #writeAsync(ModelSpecification, Path, Executor)
+	 */
+	public static CompletableFuture<Void> writeAsync(ModelSpecification specification, Path modelSpecificationPath) {
+		return writeAsync(specification, modelSpecificationPath, AsyncIO.getDefaultExecutor());
+	}
+
+	/**
+	 * Writes the specification without blocking the calling thread.
+	 * Cancelling the returned future interrupts the write if it already started, the file is then either unchanged or completely written.
+	 * The specification must not be modified until the returned future is done.
+	 */
+	public static CompletableFuture<Void> writeAsync(ModelSpecification specification, Path modelSpecificationPath, Executor executor) {
+		return AsyncIO.supply(() -> {
+			write(specification, modelSpecificationPath);
+			return null;
+		}, executor);
+	}
+
+	public static void writeJson(ModelSpecification specification, Path modelSpecificationPath) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(modelSpecificationPath, StandardCharsets.UTF_8)) {
+			writeJson(specification, writer);
+		}
+	}
+
+	/**
+	 * Writes the specification in JSON format, with the same content as the YAML format.
+	 */
+	public static void writeJson(ModelSpecification specification, Writer writer) throws IOException {
 		Map<String, Object> data = write(specification);
-		Yaml yaml = new Yaml(representer);
-		try (FileWriter writer = new FileWriter(new File(targetDirectory, modelFileName))) {
-			yaml.dump(data, writer);
+		if (data == null) {
+			throw new IOException("Cannot write specification of format version " + specification.getFormatVersion());
 		}
+		new JsonWriter(writer, "  ").write(data);
+		writer.write('\n');
+		writer.flush();
 	}
 
-	public static void write(ModelSpecification specification, Path modelSpecificationPath) throws IOException {
+	/**
+	 * Writes the canonical form of the specification: compact JSON with sorted keys, without null entries and with
+	 * normalized numbers. It does not depend on the order of maps or on the types of numbers, specifications with the
+	 * same content have the same canonical form.
+	 */
+	public static void writeCanonical(ModelSpecification specification, Writer writer) throws IOException {
 		Map<String, Object> data = write(specification);
-		Yaml yaml = new Yaml(representer);
+		if (data == null) {
+			throw new IOException("Cannot write specification of format version " + specification.getFormatVersion());
+		}
+		JsonWriter.canonical(writer).write(data);
+		writer.flush();
+	}
+
+	/**
+	 * @return the hex encoded SHA-256 hash of the canonical form, see {@link #writeCanonical(ModelSpecification, Writer)}.
+	 * The hash is computed on every call, it covers nested objects like input nodes which the specification cannot track.
+	 * {@link io.bioimage.specification.ImmutableModelSpecification#contentHash()} caches it.
+	 */
+	public static String contentHash(ModelSpecification specification) {
+		return ContentHash.of(specification, SpecificationWriter::writeCanonical);
+	}
+
+	static MessageDigest sha256() {
 		try {
-			Files.delete(modelSpecificationPath);
-		} catch(IOException ignored) {}
-		try (Writer writer = Files.newBufferedWriter(modelSpecificationPath)) {
-			yaml.dump(data, writer);
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static String toHex(byte[] bytes) {
+		char[] digits = "0123456789abcdef".toCharArray();
+		char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[2 * i] = digits[(bytes[i] >> 4) & 0xf];
+			hex[2 * i + 1] = digits[bytes[i] & 0xf];
 		}
+		return new String(hex);
 	}
 
 	public static Map<String, Object> write(ModelSpecification specification) {
@@ -118,27 +242,8 @@ public class SpecificationWriter {
 	}
 
 
-	static InputStream extractFile(File zipFile, String fileName) throws IOException {
-		ZipFile zf = new ZipFile(zipFile);
-		return zf.getInputStream(zf.getEntry(fileName));
-	}
-
-	private static void writeDependenciesFile(File targetDirectory) {
-		Map<String, Object> data = new LinkedHashMap<>();
-		List<String> dependencies = new ArrayList<>();
-		ClassLoader cl = ClassLoader.getSystemClassLoader();
-		for (URL url : ((URLClassLoader) cl).getURLs()) {
-			dependencies.add(url.getPath());
-		}
-		data.put("classPath", dependencies);
-		Yaml yaml = new Yaml(representer);
-		FileWriter writer = null;
-		try {
-			writer = new FileWriter(new File(targetDirectory, dependenciesFileName));
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		yaml.dump(data, writer);
+	private static void writeDependenciesFile(File targetDirectory) throws IOException {
+		DependenciesManifest.write(new File(targetDirectory, dependenciesFileName).toPath());
 	}
 
 	public static String getModelFileName() {
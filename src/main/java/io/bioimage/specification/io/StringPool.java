@@ -0,0 +1,128 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe pool deduplicating the strings of many specifications, e.g. axes, data types, licenses, tags,
+ * transformation names, map keys and author names. Pass it to a {@link SpecificationCodec} to apply it to all
+ * strings read by the codec.
+ * <p>
+ * Strings longer than the maximum length (typically descriptions and documentation) are not pooled, they are rarely
+ * repeated. Once the pool holds the maximum number of entries, only the existing entries are reused.
+ */
+public class StringPool {
+
+    private final static int defaultMaxLength = 128;
+    private final static int defaultMaxSize = 100_000;
+    // Java 8 stores strings as char[], later versions use one byte per character for Latin-1 strings
+    private final static boolean compactStrings = !System.getProperty("java.specification.version").startsWith("1.");
+
+    private final ConcurrentHashMap<String, String> strings = new ConcurrentHashMap<>();
+    private final int maxLength;
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    public StringPool() {
+        this(defaultMaxLength, defaultMaxSize);
+    }
+
+    /**
+     * @param maxLength strings with more characters are returned without being pooled
+     * @param maxSize the maximum number of pooled strings
+     */
+    public StringPool(int maxLength, int maxSize) {
+        this.maxLength = maxLength;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the pooled instance equal to the string, or the string itself if it was not pooled before
+     */
+    public String intern(String string) {
+        if (string == null || string.length() > maxLength) return string;
+        String pooled = strings.get(string);
+        if (pooled == null) {
+            if (strings.size() >= maxSize) return string;
+            pooled = strings.putIfAbsent(string, string);
+            if (pooled == null) return string;
+        }
+        hits.increment();
+        savedBytes.add(sizeOf(string));
+        return pooled;
+    }
+
+    /**
+     * @return the number of pooled strings
+     */
+    public int size() {
+        return strings.size();
+    }
+
+    /**
+     * @return how often a string was replaced by its pooled instance
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the estimated heap size of all strings replaced by their pooled instance, assuming a 64 bit VM
+     * with compressed object pointers. Replaced strings which are still referenced elsewhere are counted as well.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    public void clear() {
+        strings.clear();
+        hits.reset();
+        savedBytes.reset();
+    }
+
+    static long sizeOf(String string) {
+        int bytesPerChar = compactStrings && isLatin1(string) ? 1 : 2;
+        // String object header and fields plus the array header and content, each aligned to 8 bytes
+        return 24 + align(16 + (long) bytesPerChar * string.length());
+    }
+
+    private static boolean isLatin1(String string) {
+        for (int i = 0; i < string.length(); i++) {
+            if (string.charAt(i) > 0xff) return false;
+        }
+        return true;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification.transformation;
 
+import java.util.Objects;
+
 public class BinarizeTransformation extends DefaultImageTransformation {
 
 	public static final String name = "binarize";
@@ -39,10 +41,23 @@ public class BinarizeTransformation extends DefaultImageTransformation {
 
 	public void setThreshold(Number threshold) {
 		this.threshold = threshold;
+		invalidateHashCode();
 	}
 
 	@Override
 	public String getName() {
 		return name;
 	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hashCode(threshold);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		BinarizeTransformation that = (BinarizeTransformation) o;
+		return Objects.equals(threshold, that.threshold);
+	}
 }
@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification.transformation;
 
+import java.util.Objects;
+
 public class ClipTransformation extends DefaultImageTransformation {
 
 	public static final String name = "clip";
@@ -40,6 +42,7 @@ public class ClipTransformation extends DefaultImageTransformation {
 
 	public void setMin(Number min) {
 		this.min = min;
+		invalidateHashCode();
 	}
 
 	public Number getMax() {
@@ -48,10 +51,24 @@ public class ClipTransformation extends DefaultImageTransformation {
 
 	public void setMax(Number max) {
 		this.max = max;
+		invalidateHashCode();
 	}
 
 	@Override
 	public String getName() {
 		return name;
 	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hash(min, max);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		ClipTransformation that = (ClipTransformation) o;
+		return Objects.equals(min, that.min) &&
+				Objects.equals(max, that.max);
+	}
 }
@@ -28,17 +28,51 @@
  */
 package io.bioimage.specification.transformation;
 
+import java.util.Objects;
+
 public abstract class DefaultImageTransformation implements ImageTransformation {
 
 	private Mode mode;
+	// cached hash code, 0 if not computed yet
+	private int cachedHashCode;
 
 	@Override
 	public void setMode(Mode mode) {
 		this.mode = mode;
+		invalidateHashCode();
 	}
 
 	@Override
 	public Mode getMode() {
 		return mode;
 	}
+
+	@Override
+	public int hashCode() {
+		int result = cachedHashCode;
+		if (result == 0) {
+			result = computeHashCode();
+			cachedHashCode = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return the hash code of the properties set by the setters of this object, cached until {@link #invalidateHashCode()}
+	 */
+	protected int computeHashCode() {
+		return 31 * Objects.hashCode(getName()) + Objects.hashCode(mode);
+	}
+
+	protected void invalidateHashCode() {
+		cachedHashCode = 0;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		DefaultImageTransformation that = (DefaultImageTransformation) o;
+		return mode == that.mode;
+	}
 }
@@ -30,6 +30,8 @@ package io.bioimage.specification.transformation;
 
 import io.bioimage.specification.transformation.DefaultImageTransformation;
 
+import java.util.Objects;
+
 public class PercentileTransformation extends DefaultImageTransformation {
 
 	public static final String name = "percentile";
@@ -42,6 +44,7 @@ public class PercentileTransformation extends DefaultImageTransformation {
 
 	public void setMinPercentile(Number minPercentile) {
 		this.minPercentile = minPercentile;
+		invalidateHashCode();
 	}
 
 	public Number getMaxPercentile() {
@@ -50,10 +53,24 @@ public class PercentileTransformation extends DefaultImageTransformation {
 
 	public void setMaxPercentile(Number maxPercentile) {
 		this.maxPercentile = maxPercentile;
+		invalidateHashCode();
 	}
 
 	@Override
 	public String getName() {
 		return name;
 	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hash(minPercentile, maxPercentile);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		PercentileTransformation that = (PercentileTransformation) o;
+		return Objects.equals(minPercentile, that.minPercentile) &&
+				Objects.equals(maxPercentile, that.maxPercentile);
+	}
 }
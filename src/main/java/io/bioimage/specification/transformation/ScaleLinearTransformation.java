@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification.transformation;
 
+import java.util.Objects;
+
 public class ScaleLinearTransformation extends DefaultImageTransformation {
 
 	public static final String name = "scale_linear";
@@ -40,6 +42,7 @@ public class ScaleLinearTransformation extends DefaultImageTransformation {
 
 	public void setOffset(Number offset) {
 		this.offset = offset;
+		invalidateHashCode();
 	}
 
 	public Number getGain() {
@@ -48,10 +51,24 @@ public class ScaleLinearTransformation extends DefaultImageTransformation {
 
 	public void setGain(Number gain) {
 		this.gain = gain;
+		invalidateHashCode();
 	}
 
 	@Override
 	public String getName() {
 		return name;
 	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hash(offset, gain);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		ScaleLinearTransformation that = (ScaleLinearTransformation) o;
+		return Objects.equals(offset, that.offset) &&
+				Objects.equals(gain, that.gain);
+	}
 }
@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification.transformation;
 
+import java.util.Objects;
+
 public class ScaleMinMaxTransformation extends DefaultImageTransformation {
 
 	public static final String name = "scale_min_max";
@@ -41,6 +43,7 @@ public class ScaleMinMaxTransformation extends DefaultImageTransformation {
 
 	public void setMinPercentile(Number minPercentile) {
 		this.minPercentile = minPercentile;
+		invalidateHashCode();
 	}
 
 	public Number getMaxPercentile() {
@@ -49,6 +52,7 @@ public class ScaleMinMaxTransformation extends DefaultImageTransformation {
 
 	public void setMaxPercentile(Number maxPercentile) {
 		this.maxPercentile = maxPercentile;
+		invalidateHashCode();
 	}
 
 	public String getReferenceInput() {
@@ -57,10 +61,25 @@ public class ScaleMinMaxTransformation extends DefaultImageTransformation {
 
 	public void setReferenceInput(String referenceInput) {
 		this.referenceInput = referenceInput;
+		invalidateHashCode();
 	}
 
 	@Override
 	public String getName() {
 		return name;
 	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hash(referenceInput, minPercentile, maxPercentile);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		ScaleMinMaxTransformation that = (ScaleMinMaxTransformation) o;
+		return Objects.equals(referenceInput, that.referenceInput) &&
+				Objects.equals(minPercentile, that.minPercentile) &&
+				Objects.equals(maxPercentile, that.maxPercentile);
+	}
 }
@@ -28,6 +28,8 @@
  */
 package io.bioimage.specification.transformation;
 
+import java.util.Objects;
+
 public class ZeroMeanUnitVarianceTransformation extends DefaultImageTransformation {
 	public static final String name = "zero_mean_unit_variance";
 	private Number mean;
@@ -39,6 +41,7 @@ public class ZeroMeanUnitVarianceTransformation extends DefaultImageTransformati
 
 	public void setMean(Number mean) {
 		this.mean = mean;
+		invalidateHashCode();
 	}
 
 	public Number getStd() {
@@ -47,10 +50,24 @@ public class ZeroMeanUnitVarianceTransformation extends DefaultImageTransformati
 
 	public void setStd(Number std) {
 		this.std = std;
+		invalidateHashCode();
 	}
 
 	@Override
 	public String getName() {
 		return name;
 	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hash(mean, std);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		ZeroMeanUnitVarianceTransformation that = (ZeroMeanUnitVarianceTransformation) o;
+		return Objects.equals(mean, that.mean) &&
+				Objects.equals(std, that.std);
+	}
 }
@@ -28,8 +28,11 @@
  */
 package io.bioimage.specification.util;
 
+import java.util.AbstractList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 public class SpecificationUtil {
 
@@ -50,4 +53,96 @@ public class SpecificationUtil {
 		}
 		return res;
 	}
+
+	/**
+	 * @return the values as primitive array, null if the list is null or contains elements which are not numbers
+	 */
+	public static int[] toIntArray(List<?> list) {
+		if(list == null) return null;
+		int[] res = new int[list.size()];
+		for (int i = 0; i < res.length; i++) {
+			Object value = list.get(i);
+			if(!(value instanceof Number)) return null;
+			res[i] = ((Number) value).intValue();
+		}
+		return res;
+	}
+
+	/**
+	 * @return the values as primitive array, null if the list is null or contains elements which are not numbers
+	 */
+	public static double[] toDoubleArray(List<?> list) {
+		if(list == null) return null;
+		double[] res = new double[list.size()];
+		for (int i = 0; i < res.length; i++) {
+			Object value = list.get(i);
+			if(!(value instanceof Number)) return null;
+			res[i] = ((Number) value).doubleValue();
+		}
+		return res;
+	}
+
+	/**
+	 * @return a fixed-size list backed by the array, or null
+	 */
+	public static List<Integer> asList(int[] array) {
+		return array != null ? new IntList(array) : null;
+	}
+
+	/**
+	 * @return a fixed-size list backed by the array, or null
+	 */
+	public static List<Double> asList(double[] array) {
+		return array != null ? new DoubleList(array) : null;
+	}
+
+	private static class IntList extends AbstractList<Integer> implements RandomAccess {
+		private final int[] array;
+
+		private IntList(int[] array) {
+			this.array = array;
+		}
+
+		@Override
+		public Integer get(int index) {
+			return array[index];
+		}
+
+		@Override
+		public Integer set(int index, Integer element) {
+			int previous = array[index];
+			array[index] = element;
+			return previous;
+		}
+
+		@Override
+		public int size() {
+			return array.length;
+		}
+	}
+
+	private static class DoubleList extends AbstractList<Double> implements RandomAccess {
+		private final double[] array;
+
+		private DoubleList(double[] array) {
+			this.array = array;
+		}
+
+		@Override
+		public Double get(int index) {
+			return array[index];
+		}
+
+		@Override
+		public Double set(int index, Double element) {
+			double previous = array[index];
+			array[index] = element;
+			return previous;
+		}
+
+		@Override
+		public int size() {
+			return array.length;
+		}
+	}
 }
@@ -30,6 +30,8 @@ package io.bioimage.specification.weights;
 
 import io.bioimage.specification.DefaultWeightsSpecification;
 
+import java.util.Objects;
+
 public class OnnxWeightsSpecification extends DefaultWeightsSpecification {
 
 	private String opsetVersion;
@@ -40,6 +42,18 @@ public class OnnxWeightsSpecification extends DefaultWeightsSpecification {
 
 	public void setOpsetVersion(String opsetVersion) {
 		this.opsetVersion = opsetVersion;
+		invalidateHashCode();
+	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hashCode(opsetVersion);
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		OnnxWeightsSpecification that = (OnnxWeightsSpecification) o;
+		return Objects.equals(opsetVersion, that.opsetVersion);
+	}
 }
@@ -30,6 +30,8 @@ package io.bioimage.specification.weights;
 
 import io.bioimage.specification.DefaultWeightsSpecification;
 
+import java.util.Objects;
+
 public class TensorFlowSavedModelBundleSpecification extends DefaultWeightsSpecification {
 	public static final String id = "tensorflow_saved_model_bundle";
 	private String tag = "serve";
@@ -40,6 +42,18 @@ public class TensorFlowSavedModelBundleSpecification extends DefaultWeightsSpeci
 
 	public void setTag(String tag) {
 		this.tag = tag;
+		invalidateHashCode();
+	}
+
+	@Override
+	protected int computeHashCode() {
+		return 31 * super.computeHashCode() + Objects.hashCode(tag);
 	}
 
+	@Override
+	public boolean equals(Object o) {
+		if (!super.equals(o)) return false;
+		TensorFlowSavedModelBundleSpecification that = (TensorFlowSavedModelBundleSpecification) o;
+		return Objects.equals(tag, that.tag);
+	}
 }
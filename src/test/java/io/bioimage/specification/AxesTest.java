@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AxesTest {
+
+    @Test
+    public void testLookup() {
+        Axes axes = Axes.of("bcyx");
+        assertSame(axes, Axes.of(new String("bcyx")));
+        assertNull(Axes.of(null));
+        assertEquals(4, axes.size());
+        assertEquals('y', axes.get(2));
+        assertEquals(0, axes.indexOf('b'));
+        assertEquals(3, axes.indexOf('x'));
+        assertEquals(-1, axes.indexOf('z'));
+        assertEquals(-1, axes.indexOf('é'));
+        assertTrue(axes.contains('c'));
+        assertFalse(axes.contains('t'));
+        assertEquals(Axes.bit('b') | Axes.bit('c') | Axes.bit('y') | Axes.bit('x'), axes.getMask());
+        assertTrue(axes.containsAll(Axes.of("xy")));
+        assertFalse(axes.containsAll(Axes.of("xyz")));
+        assertEquals("bcyx", axes.toString());
+    }
+
+    @Test
+    public void testPermutation() {
+        Axes source = Axes.of("byxc");
+        Axes target = Axes.of("bczyx");
+        assertArrayEquals(new int[]{0, 3, -1, 1, 2}, source.permutationTo(target));
+        assertArrayEquals(new int[]{1, 3, 1, 64, 32}, source.permute(new int[]{1, 64, 32, 3}, target, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonAsciiAxes() {
+        Axes.of("xyé");
+    }
+
+    @Test
+    public void testNodeAxes() {
+        DefaultInputNodeSpecification node = new DefaultInputNodeSpecification();
+        assertNull(node.getParsedAxes());
+        node.setAxes("byxc");
+        assertSame(Axes.of("byxc"), node.getParsedAxes());
+        node.setAxes("bzyxc");
+        assertEquals(1, node.getParsedAxes().indexOf('z'));
+    }
+}
@@ -0,0 +1,176 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import io.bioimage.specification.io.SpecificationWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.canonical;
+import static io.bioimage.specification.io.SpecificationTestUtil.read;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ImmutableModelSpecificationTest {
+
+    @Test
+    public void testSnapshotWritesLikeSource() throws IOException {
+        for (String resource : Arrays.asList("/example.0.3.1.model.yaml", "/example.0.4.0.model.yaml", "/example.model.yaml")) {
+            DefaultModelSpecification specification = read(resource);
+            ImmutableModelSpecification snapshot = ImmutableModelSpecification.of(specification);
+            assertEquals(resource, canonical(specification), canonical(snapshot));
+            assertEquals(SpecificationWriter.contentHash(specification), snapshot.contentHash());
+            assertSame(snapshot.contentHash(), snapshot.contentHash());
+        }
+    }
+
+    @Test
+    public void testSnapshotIsIndependentOfSource() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        List<String> tags = new ArrayList<>(Arrays.asList("a", "b"));
+        List<Object> list = new ArrayList<>(Arrays.asList(1, 2));
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("list", list);
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("nested", nested);
+        specification.setTags(tags);
+        specification.setConfig(config);
+        ImmutableModelSpecification snapshot = ImmutableModelSpecification.of(specification);
+        String hash = snapshot.contentHash();
+
+        tags.add("c");
+        list.add(3);
+        specification.setName("changed");
+        assertEquals(Arrays.asList("a", "b"), snapshot.getTags());
+        assertEquals(Arrays.asList(1, 2), ((Map<?, ?>) snapshot.getConfig().get("nested")).get("list"));
+        assertEquals(hash, SpecificationWriter.contentHash(snapshot));
+        assertEquals(hash, snapshot.contentHash());
+    }
+
+    @Test
+    public void testEquals() throws IOException {
+        for (String resource : Arrays.asList("/example.0.3.1.model.yaml", "/example.0.4.0.model.yaml", "/example.model.yaml")) {
+            ImmutableModelSpecification snapshot = ImmutableModelSpecification.of(read(resource));
+            ImmutableModelSpecification other = ImmutableModelSpecification.of(read(resource));
+            assertEquals(resource, snapshot, other);
+            assertEquals(resource, snapshot.hashCode(), other.hashCode());
+            assertNotEquals(resource, snapshot, snapshot.withVersion("changed"));
+            assertEquals(resource, snapshot.withVersion("changed"), other.withVersion("changed"));
+            Set<ImmutableModelSpecification> set = new HashSet<>(Arrays.asList(snapshot, other, snapshot.withName("changed")));
+            assertEquals(resource, 2, set.size());
+        }
+    }
+
+    @Test
+    public void testNestedObjectsAreCopied() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        ImmutableModelSpecification snapshot = ImmutableModelSpecification.of(specification);
+        String canonical = canonical(snapshot);
+        for (int i = 0; i < specification.getInputs().size(); i++) {
+            assertEquals(specification.getInputs().get(i), snapshot.getInputs().get(i));
+            assertNotSame(specification.getInputs().get(i), snapshot.getInputs().get(i));
+        }
+        for (String name : specification.getWeights().keySet()) {
+            // the writers dispatch on the class of the weights
+            assertSame(specification.getWeights().get(name).getClass(), snapshot.getWeights().get(name).getClass());
+            assertEquals(specification.getWeights().get(name), snapshot.getWeights().get(name));
+        }
+
+        InputNodeSpecification input = specification.getInputs().get(0);
+        input.setName("changed");
+        input.setHalo(Arrays.asList(1, 2, 3, 4));
+        input.getPreprocessing().clear();
+        specification.getOutputs().get(0).setShapeReferenceInput("changed");
+        specification.getWeights().values().iterator().next().setSource("changed");
+        specification.getAuthors().get(0).setName("changed");
+        specification.getCitations().get(0).setUrl("changed");
+        assertEquals(canonical, canonical(snapshot));
+    }
+
+    @Test
+    public void testSnapshotIsUnmodifiable() throws IOException {
+        ImmutableModelSpecification snapshot = ImmutableModelSpecification.of(read("/example.0.4.0.model.yaml"));
+        assertSame(snapshot, ImmutableModelSpecification.of(snapshot));
+        assertSame(snapshot.getInputs(), snapshot.getInputs());
+        assertUnsupported(() -> snapshot.setName("name"));
+        assertUnsupported(() -> snapshot.getAuthors().clear());
+        assertUnsupported(() -> snapshot.getWeights().clear());
+        assertUnsupported(() -> ((Map<?, ?>) snapshot.getConfig().get("fiji")).clear());
+    }
+
+    @Test
+    public void testVariantsShareUnchangedFields() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        ImmutableModelSpecification base = ImmutableModelSpecification.of(specification);
+        DefaultWeightsSpecification weights = new DefaultWeightsSpecification();
+        weights.setSource("./finetuned.zip");
+        DefaultParentSpecification parent = new DefaultParentSpecification();
+        parent.setUri("https://example.com/base");
+        ImmutableModelSpecification variant = base.withWeights("torchscript", weights).withVersion("0.2").withParent(parent);
+
+        assertSame(base.getInputs(), variant.getInputs());
+        assertSame(base.getOutputs(), variant.getOutputs());
+        assertSame(base.getAuthors(), variant.getAuthors());
+        assertSame(base.getConfig(), variant.getConfig());
+        assertEquals(base.getWeights().size() + 1, variant.getWeights().size());
+        assertEquals(weights, variant.getWeights().get("torchscript"));
+        assertNotSame(weights, variant.getWeights().get("torchscript"));
+        assertEquals("0.2", variant.getVersion());
+        assertEquals(parent, variant.getParent());
+        assertNotSame(parent, variant.getParent());
+        assertEquals(specification.getVersion(), base.getVersion());
+        assertEquals(SpecificationWriter.contentHash(specification), base.contentHash());
+
+        specification.addWeights("torchscript", weights);
+        specification.setVersion("0.2");
+        specification.setParent(parent);
+        assertEquals(canonical(specification), canonical(variant));
+        assertEquals(SpecificationWriter.contentHash(specification), variant.contentHash());
+        assertUnsupported(() -> variant.getWeights().clear());
+    }
+
+    private static void assertUnsupported(Runnable runnable) {
+        try {
+            runnable.run();
+            fail();
+        } catch (UnsupportedOperationException ignored) {
+        }
+    }
+}
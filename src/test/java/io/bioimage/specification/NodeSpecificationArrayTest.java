@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import io.bioimage.specification.io.SpecificationReader;
+import io.bioimage.specification.io.SpecificationWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NodeSpecificationArrayTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadersPopulateArrays() throws IOException {
+        File file = new File(getClass().getResource("/example.0.4.0.model.yaml").getPath());
+        DefaultModelSpecification tree = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(file, tree));
+        DefaultModelSpecification streamed = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.readStreaming(file, streamed));
+        for (DefaultModelSpecification specification : Arrays.asList(tree, streamed)) {
+            InputNodeSpecification input = specification.getInputs().get(0);
+            assertArrayEquals(new int[]{1, 4, 4, 1}, input.getShapeMinArray());
+            assertArrayEquals(new int[]{0, 4, 4, 0}, input.getShapeStepArray());
+            OutputNodeSpecification output = specification.getOutputs().get(0);
+            assertArrayEquals(new int[]{0, 32, 32, 0}, output.getHaloArray());
+            assertArrayEquals(new double[]{1, 1, 1, 1}, output.getShapeScaleArray(), 0);
+            assertArrayEquals(new int[]{0, 0, 0, 0}, output.getShapeOffsetArray());
+            assertSame(output.getHaloArray(), output.getHaloArray());
+        }
+    }
+
+    @Test
+    public void testArraySetters() throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(new File(getClass().getResource("/example.0.4.0.model.yaml").getPath()), specification));
+        InputNodeSpecification input = specification.getInputs().get(0);
+        int[] shapeMin = {1, 8, 8, 1};
+        input.setShapeMinArray(shapeMin);
+        assertSame(shapeMin, input.getShapeMinArray());
+        assertEquals(Arrays.asList(1, 8, 8, 1), input.getShapeMin());
+        OutputNodeSpecification output = specification.getOutputs().get(0);
+        output.setShapeScaleArray(new double[]{1, 0.5, 0.5, 1});
+        output.setHaloArray(null);
+        assertNull(output.getHalo());
+
+        File file = folder.newFile();
+        SpecificationWriter.write(specification, file.toPath());
+        DefaultModelSpecification result = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(file, result));
+        assertArrayEquals(shapeMin, result.getInputs().get(0).getShapeMinArray());
+        assertArrayEquals(new double[]{1, 0.5, 0.5, 1}, result.getOutputs().get(0).getShapeScaleArray(), 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked") // values of other types, as they can come from a YAML document
+    public void testNonNumericValues() {
+        DefaultInputNodeSpecification input = new DefaultInputNodeSpecification();
+        input.setShapeMin((List) Collections.singletonList("1"));
+        assertNull(input.getShapeMinArray());
+        input.setHalo((List) Arrays.asList(2.0, 3));
+        assertArrayEquals(new int[]{2, 3}, input.getHaloArray());
+    }
+}
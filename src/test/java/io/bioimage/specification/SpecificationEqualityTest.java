@@ -0,0 +1,148 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification;
+
+import io.bioimage.specification.io.LazyModelSpecification;
+import io.bioimage.specification.io.SpecificationReader;
+import io.bioimage.specification.transformation.ScaleLinearTransformation;
+import io.bioimage.specification.transformation.ZeroMeanUnitVarianceTransformation;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.read;
+import static io.bioimage.specification.io.SpecificationTestUtil.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationEqualityTest {
+
+    @Test
+    public void testEqualReads() throws IOException {
+        for (String resource : new String[]{"/example.0.3.1.model.yaml", "/example.0.4.0.model.yaml", "/example.model.yaml"}) {
+            DefaultModelSpecification tree = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.read(resource(resource), tree));
+            DefaultModelSpecification streamed = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.readStreaming(resource(resource), streamed));
+            assertEquals(resource, tree, streamed);
+            assertEquals(resource, tree.hashCode(), streamed.hashCode());
+        }
+        LazyModelSpecification lazy = LazyModelSpecification.read(resource("/example.0.4.0.model.yaml").toPath());
+        LazyModelSpecification other = LazyModelSpecification.read(resource("/example.0.4.0.model.yaml").toPath());
+        assertEquals(lazy, other);
+        assertEquals(lazy.hashCode(), other.hashCode());
+    }
+
+    @Test
+    public void testSettersInvalidateHashCode() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        DefaultModelSpecification other = read("/example.0.4.0.model.yaml");
+        int hashCode = specification.hashCode();
+
+        specification.setVersion("2");
+        assertNotEquals(hashCode, specification.hashCode());
+        assertNotEquals(other, specification);
+        specification.setVersion(other.getVersion());
+        assertEquals(hashCode, specification.hashCode());
+        assertEquals(other, specification);
+
+        DefaultNodeSpecification node = (DefaultNodeSpecification) specification.getInputs().get(0);
+        node.setAxes("bcyx");
+        assertNotEquals(other.getInputs().get(0).hashCode(), node.hashCode());
+        assertNotEquals(other, specification);
+        node.setAxes(other.getInputs().get(0).getAxes());
+        assertEquals(other.getInputs().get(0).hashCode(), node.hashCode());
+
+        ((DefaultAuthorSpecification) specification.getAuthors().get(0)).setName("other");
+        assertNotEquals(other.hashCode(), specification.hashCode());
+        ((DefaultAuthorSpecification) specification.getAuthors().get(0)).setName(other.getAuthors().get(0).getName());
+        assertEquals(other.hashCode(), specification.hashCode());
+
+        WeightsSpecification weights = specification.getWeights().values().iterator().next();
+        weights.setSha256("0");
+        assertNotEquals(other, specification);
+    }
+
+    @Test
+    public void testCallerOwnedLists() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        DefaultModelSpecification other = read("/example.0.4.0.model.yaml");
+        List<String> tags = new ArrayList<>(other.getTags());
+        specification.setTags(tags);
+        specification.hashCode();
+        tags.add("other");
+        other.setTags(new ArrayList<>(tags));
+        assertEquals(other, specification);
+        assertEquals(other.hashCode(), specification.hashCode());
+
+        List<Integer> halo = new ArrayList<>(Arrays.asList(0, 0, 8, 8));
+        DefaultInputNodeSpecification node = (DefaultInputNodeSpecification) specification.getInputs().get(0);
+        node.setHalo(halo);
+        int nodeHashCode = node.hashCode();
+        halo.set(2, 16);
+        assertNotEquals(nodeHashCode, node.hashCode());
+
+        List<Integer> shapeMin = new ArrayList<>(node.getShapeMin());
+        node.setShapeMin(shapeMin);
+        nodeHashCode = node.hashCode();
+        shapeMin.set(0, 2);
+        assertNotEquals(nodeHashCode, node.hashCode());
+    }
+
+    @Test
+    public void testTransformationsAsKeys() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        DefaultModelSpecification other = read("/example.0.4.0.model.yaml");
+        Map<InputNodeSpecification, String> pipelines = new HashMap<>();
+        pipelines.put(specification.getInputs().get(0), "compiled");
+        assertEquals("compiled", pipelines.get(other.getInputs().get(0)));
+
+        TransformationSpecification transformation = specification.getInputs().get(0).getPreprocessing().get(0);
+        int nodeHashCode = specification.getInputs().get(0).hashCode();
+        if (transformation instanceof ScaleLinearTransformation) {
+            ((ScaleLinearTransformation) transformation).setGain(2);
+        } else {
+            ((ZeroMeanUnitVarianceTransformation) transformation).setMean(2);
+        }
+        assertNotEquals(other.getInputs().get(0).getPreprocessing().get(0), transformation);
+        assertNotEquals(nodeHashCode, specification.getInputs().get(0).hashCode());
+        assertNotEquals(other.getInputs().get(0), specification.getInputs().get(0));
+
+        ScaleLinearTransformation scaleLinear = new ScaleLinearTransformation();
+        ZeroMeanUnitVarianceTransformation zeroMean = new ZeroMeanUnitVarianceTransformation();
+        assertNotEquals(scaleLinear, zeroMean);
+        assertEquals(new ScaleLinearTransformation(), scaleLinear);
+    }
+}
@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+public class DependenciesManifestTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testContent() {
+        String classPath = String.join(File.pathSeparator, "a.jar", "", "b.jar");
+        Map<String, Object> data = load(DependenciesManifest.createContent(classPath, null));
+        assertEquals(Arrays.asList("a.jar", "b.jar"), data.get("classPath"));
+        assertFalse(data.containsKey("modulePath"));
+        Map<String, Object> withModules = load(DependenciesManifest.createContent(classPath, "c.jar"));
+        assertEquals(Arrays.asList("c.jar"), withModules.get("modulePath"));
+        assertNotEquals(data.get("sha256"), withModules.get("sha256"));
+    }
+
+    @Test
+    public void testRewriteOnlyIfChanged() throws IOException {
+        Path file = folder.getRoot().toPath().resolve(SpecificationWriter.dependenciesFileName);
+        DependenciesManifest.write(file);
+        FileTime written = FileTime.fromMillis(1000);
+        Files.setLastModifiedTime(file, written);
+        DependenciesManifest.write(file);
+        assertEquals(written, Files.getLastModifiedTime(file));
+        Files.write(file, "classPath: []".getBytes(StandardCharsets.UTF_8));
+        DependenciesManifest.write(file);
+        assertEquals(System.getProperty("java.class.path").split(File.pathSeparator)[0],
+                ((List<?>) load(Files.readAllBytes(file)).get("classPath")).get(0));
+    }
+
+    private static Map<String, Object> load(byte[] content) {
+        return SpecificationCodec.getDefault().load(new StringReader(new String(content, StandardCharsets.UTF_8)));
+    }
+}
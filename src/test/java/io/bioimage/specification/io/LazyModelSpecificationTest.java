@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.InputNodeSpecification;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.dump;
+import static io.bioimage.specification.io.SpecificationTestUtil.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LazyModelSpecificationTest {
+
+    @Test
+    public void testExampleSpecs() throws IOException {
+        compareWithEagerReader("/example.0.1.0.model.yaml");
+        compareWithEagerReader("/example.0.2.0-csbdeep.model.yaml");
+        compareWithEagerReader("/example.0.3.1.model.yaml");
+        compareWithEagerReader("/example.0.4.0.model.yaml");
+        compareWithEagerReader("/example.model.yaml");
+    }
+
+    @Test
+    public void testSectionsAreLoadedOnDemand() throws IOException {
+        LazyModelSpecification specification = LazyModelSpecification.read(resource("/example.0.4.0.model.yaml").toPath());
+        assertEquals("0.4.0", specification.getFormatVersion());
+        assertFalse(specification.getName().isEmpty());
+        assertFalse(specification.getTags().isEmpty());
+        assertFalse(specification.isNodesLoaded());
+        assertFalse(specification.isWeightsLoaded());
+        assertFalse(specification.isConfigLoaded());
+        assertFalse(specification.isDocumentationLoaded());
+        assertEquals(1, specification.getWeights().size());
+        assertTrue(specification.isWeightsLoaded());
+        assertFalse(specification.isNodesLoaded());
+        assertFalse(specification.isConfigLoaded());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        LazyModelSpecification specification = LazyModelSpecification.read(resource("/example.0.4.0.model.yaml").toPath());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<InputNodeSpecification>>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(specification::getInputNodes));
+            }
+            for (Future<List<InputNodeSpecification>> result : results) {
+                assertSame(specification.getInputNodes(), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void compareWithEagerReader(String resource) throws IOException {
+        File file = resource(resource);
+        DefaultModelSpecification eager = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(file, eager));
+        LazyModelSpecification lazy = LazyModelSpecification.read(file.toPath());
+        assertEquals(resource, dump(eager), dump(lazy));
+    }
+}
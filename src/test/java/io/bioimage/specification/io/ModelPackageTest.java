@@ -0,0 +1,112 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ModelPackageTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLazyAccess() throws IOException {
+        File zip = createPackage();
+        try (ModelPackage modelPackage = ModelPackage.open(zip)) {
+            assertTrue(modelPackage.contains("rdf.yaml"));
+            assertTrue(modelPackage.contains("./weights.zip"));
+            assertFalse(modelPackage.contains("missing.tif"));
+            DefaultModelSpecification specification = modelPackage.getSpecification();
+            assertEquals("0.4.0", specification.getFormatVersion());
+            assertSame(specification, modelPackage.getSpecification());
+            try (InputStream stream = modelPackage.openWeights("tensorflow_saved_model_bundle")) {
+                assertEquals("weights", IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+            try (InputStream stream = modelPackage.openTestInput(0)) {
+                assertEquals("input", IOUtils.toString(stream, StandardCharsets.UTF_8));
+            }
+            ByteBuffer output = modelPackage.readEntry("test_output.tif");
+            assertEquals("output".length(), output.remaining());
+            assertEquals('o', output.get(0));
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testMissingEntry() throws IOException {
+        try (ModelPackage modelPackage = ModelPackage.open(createPackage())) {
+            modelPackage.openEntry("missing.tif");
+        }
+    }
+
+    @Test
+    public void testReadFromZIP() throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.readFromZIP(createPackage(), specification));
+        assertEquals("0.4.0", specification.getFormatVersion());
+    }
+
+    private File createPackage() throws IOException {
+        String rdf = FileUtils.readFileToString(new File(getClass().getResource("/example.0.4.0.model.yaml").getPath()), StandardCharsets.UTF_8)
+                .replaceAll("source: \".*\"", "source: ./weights.zip");
+        File zip = folder.newFile("model.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            write(out, "rdf.yaml", rdf);
+            write(out, "weights.zip", "weights");
+            write(out, "test_input.tif", "input");
+            write(out, "test_output.tif", "output");
+        }
+        return zip;
+    }
+
+    private static void write(ZipOutputStream out, String name, String content) throws IOException {
+        out.putNextEntry(new ZipEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}
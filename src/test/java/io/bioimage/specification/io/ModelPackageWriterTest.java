@@ -0,0 +1,198 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.DefaultWeightsSpecification;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ModelPackageWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWritePackage() throws IOException {
+        File directory = folder.newFolder();
+        Random random = new Random(42);
+        byte[] weights = new byte[300_000];
+        random.nextBytes(weights);
+        // compressible content spanning several blocks
+        byte[] input = new byte[3_500_000];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (byte) (i % 251 + random.nextInt(3));
+        }
+        Map<String, byte[]> files = new HashMap<>();
+        files.put("weights.zip", weights);
+        files.put("test_input.tif", input);
+        files.put("test_output.tif", new byte[0]);
+        files.put("thumbnail.png", "cover".getBytes(StandardCharsets.UTF_8));
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            FileUtils.writeByteArrayToFile(new File(directory, file.getKey()), file.getValue());
+        }
+        DefaultModelSpecification specification = createSpecification();
+
+        File zip = new File(folder.getRoot(), "model.zip");
+        SpecificationWriter.writePackage(specification, directory.toPath(), zip.toPath());
+
+        try (ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(files.size() + 1, zipFile.size());
+            for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                ZipEntry entry = zipFile.getEntry(file.getKey());
+                try (InputStream stream = zipFile.getInputStream(entry)) {
+                    assertArrayEquals(file.getKey(), file.getValue(), IOUtils.toByteArray(stream));
+                }
+            }
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("weights.zip").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("test_input.tif").getMethod());
+            assertTrue(zipFile.getEntry("test_input.tif").getCompressedSize() < input.length / 2);
+        }
+        // local headers have to be valid as well
+        int count = 0;
+        try (ZipInputStream stream = new ZipInputStream(new FileInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = stream.getNextEntry()) != null) {
+                byte[] content = IOUtils.toByteArray(stream);
+                if (files.containsKey(entry.getName())) {
+                    assertArrayEquals(files.get(entry.getName()), content);
+                }
+                count++;
+            }
+        }
+        assertEquals(files.size() + 1, count);
+        try (ModelPackage modelPackage = ModelPackage.open(zip)) {
+            assertEquals("0.4.0", modelPackage.getSpecification().getFormatVersion());
+            assertEquals(input.length, modelPackage.readEntry("test_input.tif").remaining());
+        }
+    }
+
+    @Test
+    public void testMissingTestInput() throws IOException {
+        File directory = folder.newFolder();
+        FileUtils.writeByteArrayToFile(new File(directory, "weights.zip"), new byte[10]);
+        File zip = new File(folder.getRoot(), "model.zip");
+        try {
+            SpecificationWriter.writePackage(createSpecification(), directory.toPath(), zip.toPath());
+            throw new AssertionError("Expected missing test input");
+        } catch (FileNotFoundException e) {
+            assertTrue(e.getMessage().contains("test_input.tif"));
+        }
+        assertFalse(zip.exists());
+    }
+
+    @Test(timeout = 60_000)
+    public void testWriteFromAsyncPool() throws Exception {
+        File directory = folder.newFolder();
+        FileUtils.writeByteArrayToFile(new File(directory, "weights.zip"), new byte[10]);
+        FileUtils.writeByteArrayToFile(new File(directory, "test_input.tif"), new byte[3_000_000]);
+        FileUtils.writeByteArrayToFile(new File(directory, "test_output.tif"), new byte[10]);
+        DefaultModelSpecification specification = createSpecification();
+        // occupies every thread of the pool with a package write, the blocks must not be queued on the same pool
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 2 * Runtime.getRuntime().availableProcessors() + 2; i++) {
+            File zip = new File(folder.getRoot(), "model" + i + ".zip");
+            writes.add(AsyncIO.supply(() -> {
+                SpecificationWriter.writePackage(specification, directory.toPath(), zip.toPath());
+                return null;
+            }, AsyncIO.getDefaultExecutor()));
+        }
+        for (CompletableFuture<Void> write : writes) {
+            write.get();
+        }
+        try (ModelPackage modelPackage = ModelPackage.open(new File(folder.getRoot(), "model0.zip"))) {
+            assertEquals(3_000_000, modelPackage.readEntry("test_input.tif").remaining());
+        }
+    }
+
+    @Test
+    public void testFailedWriteKeepsPackage() throws IOException {
+        File directory = folder.newFolder();
+        FileUtils.writeByteArrayToFile(new File(directory, "weights.zip"), new byte[10]);
+        FileUtils.writeByteArrayToFile(new File(directory, "test_input.tif"), new byte[10]);
+        FileUtils.writeByteArrayToFile(new File(directory, "test_output.tif"), new byte[10]);
+        File zip = new File(folder.getRoot(), "model.zip");
+        byte[] previous = "previous package".getBytes(StandardCharsets.UTF_8);
+        FileUtils.writeByteArrayToFile(zip, previous);
+        ModelPackageWriter writer = new ModelPackageWriter(runnable -> {
+            throw new RejectedExecutionException();
+        }, Deflater.DEFAULT_COMPRESSION);
+        try {
+            writer.write(createSpecification(), directory.toPath(), zip.toPath());
+            throw new AssertionError("Expected the compression to fail");
+        } catch (RejectedExecutionException ignored) {
+        }
+        assertArrayEquals(previous, FileUtils.readFileToByteArray(zip));
+        assertEquals(Arrays.asList(directory.getName(), zip.getName()), sortedNames(folder.getRoot()));
+    }
+
+    private static List<String> sortedNames(File directory) {
+        String[] names = directory.list();
+        Arrays.sort(names);
+        return Arrays.asList(names);
+    }
+
+    private DefaultModelSpecification createSpecification() throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(new File(getClass().getResource("/example.0.4.0.model.yaml").getPath()), specification));
+        DefaultWeightsSpecification weights = (DefaultWeightsSpecification) specification.getWeights().values().iterator().next();
+        weights.setSource("weights.zip");
+        specification.setTestInputs(Collections.singletonList("./test_input.tif"));
+        specification.setCovers(Arrays.asList("thumbnail.png", "https://example.com/cover.png"));
+        return specification;
+    }
+}
@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.read;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class SpecificationByteBufferTest {
+
+    @Test
+    public void testExampleSpecs() throws IOException {
+        for (String resource : Arrays.asList("/example.0.1.0.model.yaml", "/example.0.2.0-csbdeep.model.yaml",
+                "/example.0.3.1.model.yaml", "/example.0.4.0.model.yaml", "/example.model.yaml")) {
+            DefaultModelSpecification specification = read(resource);
+            specification.setFormatVersion("0.4.0");
+            compareWithWriter(specification);
+        }
+    }
+
+    @Test
+    public void testLargeNonAsciiContent() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            description.append("aé中😀");
+        }
+        specification.setDescription(description.toString());
+        specification.setName("🔬 microscopy");
+        compareWithWriter(specification);
+    }
+
+    @Test
+    public void testOverflowKeepsPosition() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        buffer.position(10);
+        try {
+            SpecificationWriter.write(specification, buffer);
+            fail();
+        } catch (BufferOverflowException ignored) {
+        }
+        assertEquals(10, buffer.position());
+        // the writer of this thread is usable again
+        compareWithWriter(specification);
+    }
+
+    @Test
+    public void testErrorReleasesWriter() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(100);
+        buffer.position(10);
+        Writer[] writers = new Writer[2];
+        try {
+            ByteBufferWriter.write(buffer, writer -> {
+                writers[0] = writer;
+                writer.write("content");
+                writer.flush();
+                throw new StackOverflowError();
+            });
+            fail();
+        } catch (StackOverflowError ignored) {
+        }
+        assertEquals(10, buffer.position());
+        // the next write of this thread reuses the writer
+        assertEquals(2, ByteBufferWriter.write(buffer, writer -> {
+            writers[1] = writer;
+            writer.write("ok");
+        }));
+        assertSame(writers[0], writers[1]);
+        assertEquals(12, buffer.position());
+    }
+
+    private void compareWithWriter(DefaultModelSpecification specification) throws IOException {
+        StringWriter writer = new StringWriter();
+        SpecificationWriter.writeStreaming(specification, writer);
+        byte[] expected = writer.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(expected.length + 7), ByteBuffer.allocateDirect(expected.length + 7))) {
+            buffer.position(7);
+            assertEquals(expected.length, SpecificationWriter.write(specification, buffer));
+            assertEquals(expected.length + 7, buffer.position());
+            buffer.flip().position(7);
+            byte[] actual = new byte[buffer.remaining()];
+            buffer.get(actual);
+            assertArrayEquals(expected, actual);
+        }
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        assertEquals(expected.length, SpecificationWriter.write(specification, Channels.newChannel(stream)));
+        assertArrayEquals(expected, stream.toByteArray());
+    }
+}
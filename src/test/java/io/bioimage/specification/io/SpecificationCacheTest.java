@@ -0,0 +1,187 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SpecificationCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testHitsAndInvalidation() throws IOException {
+        Path path = copyExample("model");
+        SpecificationCache cache = new SpecificationCache(10);
+        DefaultModelSpecification specification = cache.get(path);
+        assertSame(specification, cache.get(path));
+        assertSame(specification, cache.get(path.getParent().resolve("../model/rdf.yaml")));
+        assertEquals(2, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+
+        FileUtils.writeStringToFile(path.toFile(), "\n", StandardCharsets.UTF_8, true);
+        DefaultModelSpecification changed = cache.get(path);
+        assertNotSame(specification, changed);
+        assertEquals(2, cache.getStats().getLoadCount());
+
+        cache.invalidate(path);
+        assertNotSame(changed, cache.get(path));
+        assertEquals(3, cache.getStats().getLoadCount());
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        SpecificationCache cache = new SpecificationCache(2);
+        Path a = copyExample("a");
+        Path b = copyExample("b");
+        Path c = copyExample("c");
+        cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        cache.get(c);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getStats().getEvictionCount());
+        // b was the least recently used entry
+        cache.get(a);
+        cache.get(c);
+        assertEquals(3, cache.getStats().getLoadCount());
+        cache.get(b);
+        assertEquals(4, cache.getStats().getLoadCount());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        Path path = copyExample("model");
+        SpecificationCache cache = new SpecificationCache(10);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<DefaultModelSpecification>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(path);
+                }));
+            }
+            start.countDown();
+            DefaultModelSpecification first = results.get(0).get();
+            for (Future<DefaultModelSpecification> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.getStats().getLoadCount());
+        assertEquals(32, cache.getStats().getHitCount() + cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void testLoadErrorReleasesWaiters() throws Exception {
+        Path path = copyExample("model");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        SpecificationCache cache = new SpecificationCache(10, specification -> {
+            loading.countDown();
+            try {
+                waiting.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new AssertionError("weigher failed");
+        }, false);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<DefaultModelSpecification> first = executor.submit(() -> cache.get(path));
+            loading.await();
+            Future<DefaultModelSpecification> second = executor.submit(() -> cache.get(path));
+            // give the second caller a chance to block on the running load
+            Thread.sleep(100);
+            waiting.countDown();
+            assertFailsWithError(first);
+            assertFailsWithError(second);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, cache.size());
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void testDeletedFile() throws IOException {
+        Path path = copyExample("model");
+        SpecificationCache cache = new SpecificationCache(10);
+        cache.get(path);
+        FileUtils.forceDelete(path.toFile());
+        try {
+            cache.get(path);
+        } finally {
+            assertEquals(0, cache.size());
+            assertEquals(1, cache.getStats().getLoadFailureCount());
+        }
+    }
+
+    private static void assertFailsWithError(Future<?> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof AssertionError);
+        }
+    }
+
+    private Path copyExample(String name) throws IOException {
+        File file = new File(folder.getRoot(), name + "/rdf.yaml");
+        FileUtils.copyFile(new File(getClass().getResource("/example.0.4.0.model.yaml").getPath()), file);
+        return file.toPath();
+    }
+}
@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.WeightsSpecification;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.canonical;
+import static io.bioimage.specification.io.SpecificationTestUtil.read;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationCanonicalTest {
+
+    @Test
+    public void testNumbers() throws IOException {
+        List<Object> numbers = Arrays.asList(1, 1L, 1.0, 1.0f, new BigDecimal("1.000"), BigInteger.ONE,
+                0.1f, 0.1, -0.0, 1e21, 1.5e-8, 123456.5, Double.NaN, Float.NEGATIVE_INFINITY);
+        StringWriter writer = new StringWriter();
+        JsonWriter.canonical(writer).write(numbers);
+        assertEquals("[1,1,1,1,1,1,0.1,0.1,0,1e21,1.5e-8,123456.5,\"nan\",\"-inf\"]", writer.toString());
+    }
+
+    @Test
+    public void testMapOrder() throws IOException {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("b", 2.0);
+        first.put("a", Collections.singletonMap("y", null));
+        first.put("c", null);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("a", Collections.emptyMap());
+        second.put("b", 2);
+        StringWriter firstWriter = new StringWriter();
+        JsonWriter.canonical(firstWriter).write(first);
+        StringWriter secondWriter = new StringWriter();
+        JsonWriter.canonical(secondWriter).write(second);
+        assertEquals("{\"a\":{},\"b\":2}", firstWriter.toString());
+        assertEquals(firstWriter.toString(), secondWriter.toString());
+    }
+
+    @Test
+    public void testExampleSpecs() throws IOException {
+        for (String resource : Arrays.asList("/example.0.1.0.model.yaml", "/example.0.2.0-csbdeep.model.yaml",
+                "/example.0.3.1.model.yaml", "/example.0.4.0.model.yaml", "/example.model.yaml")) {
+            DefaultModelSpecification specification = read(resource);
+            // a specification read back from JSON has the same canonical form
+            StringWriter json = new StringWriter();
+            SpecificationWriter.writeJson(specification, json);
+            DefaultModelSpecification fromJson = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.readJson(new StringReader(json.toString()), fromJson));
+            assertEquals(resource, canonical(specification), canonical(fromJson));
+            assertEquals(resource, SpecificationWriter.contentHash(specification), SpecificationWriter.contentHash(fromJson));
+        }
+    }
+
+    @Test
+    public void testWeightsOrder() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        WeightsSpecification weights = specification.getWeights().values().iterator().next();
+        String hash = SpecificationWriter.contentHash(specification);
+        Map<String, WeightsSpecification> reordered = new LinkedHashMap<>();
+        reordered.put("torchscript", weights);
+        reordered.putAll(specification.getWeights());
+        specification.setWeights(reordered);
+        String withTorchscript = SpecificationWriter.contentHash(specification);
+        assertNotEquals(hash, withTorchscript);
+        Map<String, WeightsSpecification> inOrder = new LinkedHashMap<>(specification.getWeights());
+        inOrder.remove("torchscript");
+        inOrder.put("torchscript", weights);
+        specification.setWeights(inOrder);
+        assertEquals(withTorchscript, SpecificationWriter.contentHash(specification));
+    }
+
+    @Test
+    public void testContentHash() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        String hash = SpecificationWriter.contentHash(specification);
+        assertEquals(64, hash.length());
+        assertEquals(hash, SpecificationWriter.contentHash(read("/example.0.4.0.model.yaml")));
+        String inputName = specification.getInputs().get(0).getName();
+        specification.getInputs().get(0).setName("other");
+        assertNotEquals(hash, SpecificationWriter.contentHash(specification));
+        specification.getInputs().get(0).setName(inputName);
+        assertEquals(hash, SpecificationWriter.contentHash(specification));
+        String name = specification.getName();
+        specification.setName("other");
+        assertNotEquals(hash, SpecificationWriter.contentHash(specification));
+        specification.setTags(new ArrayList<>(specification.getTags()));
+        specification.setName(name);
+        assertEquals(hash, SpecificationWriter.contentHash(specification));
+    }
+}
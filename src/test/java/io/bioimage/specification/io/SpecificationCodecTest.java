@@ -0,0 +1,104 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationCodecTest {
+
+    private static final String[] resources = {
+            "/example.0.1.0.model.yaml",
+            "/example.0.2.0-csbdeep.model.yaml",
+            "/example.0.3.1.model.yaml",
+            "/example.0.4.0.model.yaml",
+            "/example.model.yaml"
+    };
+
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        SpecificationCodec codec = new SpecificationCodec();
+        List<String> expected = new ArrayList<>();
+        for (String resource : resources) {
+            expected.add(readAndDump(codec, resource, false));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String resource = resources[i % resources.length];
+                boolean streaming = i % 2 == 0;
+                results.add(executor.submit(() -> readAndDump(codec, resource, streaming)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(resources[i % resources.length], expected.get(i % resources.length), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testStaticMethodsUseDefaultCodec() throws IOException {
+        File file = new File(getClass().getResource("/example.0.4.0.model.yaml").getPath());
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(file, specification));
+        File out = File.createTempFile("rdf", ".yaml");
+        out.deleteOnExit();
+        SpecificationWriter.write(specification, out.toPath());
+        StringWriter writer = new StringWriter();
+        SpecificationCodec.getDefault().write(specification, writer);
+        assertEquals(writer.toString(), FileUtils.readFileToString(out, "UTF-8"));
+    }
+
+    private String readAndDump(SpecificationCodec codec, String resource, boolean streaming) throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        try (InputStream stream = Files.newInputStream(new File(getClass().getResource(resource).getPath()).toPath())) {
+            assertTrue(streaming ? codec.readStreaming(stream, specification) : codec.read(stream, specification));
+        }
+        StringWriter writer = new StringWriter();
+        codec.write(specification, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.dump;
+import static io.bioimage.specification.io.SpecificationTestUtil.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationEventReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testExampleSpecs() throws IOException {
+        compareWithTreeReader("/example.0.1.0.model.yaml");
+        compareWithTreeReader("/example.0.2.0-csbdeep.model.yaml");
+        compareWithTreeReader("/example.0.3.1.model.yaml");
+        compareWithTreeReader("/example.0.4.0.model.yaml");
+        compareWithTreeReader("/example.model.yaml");
+    }
+
+    @Test
+    public void testAliasFallback() throws IOException {
+        File file = folder.newFile("alias.yaml");
+        FileUtils.writeStringToFile(file, "format_version: 0.4.0\n" +
+                "name: &name modelname\n" +
+                "description: *name\n" +
+                "inputs: []\n" +
+                "outputs: []\n", StandardCharsets.UTF_8);
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.readStreaming(file, specification));
+        assertEquals("modelname", specification.getDescription());
+    }
+
+    @Test
+    public void testUnknownFormat() throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        byte[] content = "name: modelname\n".getBytes(StandardCharsets.UTF_8);
+        assertFalse(SpecificationReader.readStreaming(new ByteArrayInputStream(content), specification));
+        assertFalse(SpecificationReader.readStreaming(new ByteArrayInputStream(new byte[0]), specification));
+    }
+
+    @Test
+    public void testReadFormatVersion() throws IOException {
+        assertEquals("0.1.0", readFormatVersion("/example.0.1.0.model.yaml"));
+        assertEquals("0.2.0-csbdeep", readFormatVersion("/example.0.2.0-csbdeep.model.yaml"));
+        assertEquals("0.3.1", readFormatVersion("/example.0.3.1.model.yaml"));
+        assertEquals("0.4.0", readFormatVersion("/example.0.4.0.model.yaml"));
+        assertNull(SpecificationReader.readFormatVersion(stream("name: modelname\n")));
+        assertNull(SpecificationReader.readFormatVersion(stream("- format_version: 0.4.0\n")));
+        assertNull(SpecificationReader.readFormatVersion(stream("")));
+    }
+
+    @Test
+    public void testReadFormatVersionStopsEarly() throws IOException {
+        // everything behind the format version is never parsed, even if it is invalid
+        String content = "name: modelname\n" +
+                "authors: [{name: a}, {name: b}]\n" +
+                "format_version: 0.4.0\n" +
+                "inputs: [unclosed\n";
+        assertEquals("0.4.0", SpecificationReader.readFormatVersion(stream(content)));
+    }
+
+    @Test
+    public void testUnsupportedFormatVersionIsRejectedEarly() throws IOException {
+        String content = "format_version: 0.9.0\n" +
+                "inputs: [unclosed\n";
+        assertFalse(SpecificationReader.canRead("0.9.0"));
+        assertFalse(SpecificationReader.readStreaming(stream(content), new DefaultModelSpecification()));
+    }
+
+    private String readFormatVersion(String resource) throws IOException {
+        return SpecificationReader.readFormatVersion(resource(resource));
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void compareWithTreeReader(String resource) throws IOException {
+        File file = resource(resource);
+        DefaultModelSpecification treeSpec = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(file, treeSpec));
+        DefaultModelSpecification eventSpec = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.readStreaming(file, eventSpec));
+        assertEquals(resource, dump(treeSpec), dump(eventSpec));
+    }
+}
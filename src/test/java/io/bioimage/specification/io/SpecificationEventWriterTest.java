@@ -0,0 +1,119 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.dump;
+import static io.bioimage.specification.io.SpecificationTestUtil.read;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationEventWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testExampleSpecs() throws IOException {
+        compareWithTree("/example.0.1.0.model.yaml");
+        compareWithTree("/example.0.2.0-csbdeep.model.yaml");
+        compareWithTree("/example.0.3.1.model.yaml");
+        compareWithTree("/example.0.4.0.model.yaml");
+        compareWithTree("/example.model.yaml");
+    }
+
+    @Test
+    public void testScalars() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        specification.setName("1.0");
+        specification.setDescription("first line\nsecond line: with colon");
+        specification.setTags(Arrays.asList("true", "null", "~", "- item", "#", "plain"));
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("int", 1);
+        config.put("long", 12345678901L);
+        config.put("float", 0.5);
+        config.put("nan", Double.NaN);
+        config.put("bool", false);
+        config.put("null", null);
+        config.put("list", Arrays.asList(1, "2", Arrays.asList(3.0, null)));
+        specification.setConfig(config);
+
+        StringWriter writer = new StringWriter();
+        SpecificationWriter.writeStreaming(specification, writer);
+        DefaultModelSpecification result = new DefaultModelSpecification();
+        assertTrue(SpecificationCodec.getDefault().read(new StringReader(writer.toString()), result));
+        assertEquals("1.0", result.getName());
+        assertEquals(specification.getDescription(), result.getDescription());
+        assertEquals(specification.getTags(), result.getTags());
+        Map<String, Object> resultConfig = result.getConfig();
+        assertEquals(1, resultConfig.get("int"));
+        assertEquals(12345678901L, resultConfig.get("long"));
+        assertEquals(0.5, resultConfig.get("float"));
+        assertTrue(Double.isNaN((Double) resultConfig.get("nan")));
+        assertEquals(false, resultConfig.get("bool"));
+        assertTrue(resultConfig.containsKey("null"));
+        assertEquals(config.get("list"), resultConfig.get("list"));
+    }
+
+    @Test
+    public void testNullEntriesAreOmitted() throws IOException {
+        DefaultModelSpecification specification = read("/example.0.4.0.model.yaml");
+        specification.setGitRepo(null);
+        StringWriter writer = new StringWriter();
+        SpecificationWriter.writeStreaming(specification, writer);
+        assertFalse(writer.toString().contains("git_repo"));
+    }
+
+    private void compareWithTree(String resource) throws IOException {
+        DefaultModelSpecification specification = read(resource);
+        specification.setFormatVersion("0.4.0");
+        File treeFile = folder.newFile();
+        SpecificationWriter.write(specification, treeFile.toPath());
+        DefaultModelSpecification tree = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(treeFile, tree));
+        File streamedFile = folder.newFile();
+        SpecificationWriter.writeStreaming(specification, streamedFile.toPath());
+        DefaultModelSpecification streamed = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(streamedFile, streamed));
+        assertEquals(resource, dump(tree), dump(streamed));
+    }
+}
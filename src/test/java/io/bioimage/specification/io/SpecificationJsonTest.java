@@ -0,0 +1,154 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.dump;
+import static io.bioimage.specification.io.SpecificationTestUtil.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationJsonTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testExampleSpecs() throws IOException {
+        compareWithYaml("/example.0.1.0.model.yaml");
+        compareWithYaml("/example.0.2.0-csbdeep.model.yaml");
+        compareWithYaml("/example.0.3.1.model.yaml");
+        compareWithYaml("/example.0.4.0.model.yaml");
+        compareWithYaml("/example.model.yaml");
+    }
+
+    @Test
+    public void testCollection() throws IOException {
+        StringBuilder collection = new StringBuilder("{\"name\": \"zoo\", \"tags\": [[1], {\"a\": null}], \"collection\": [");
+        collection.append(toJson("/example.0.4.0.model.yaml")).append(",\n");
+        collection.append("{\"name\": \"not a model\"},\n");
+        collection.append(toJson("/example.0.3.1.model.yaml")).append("], \"version\": 1}");
+        List<DefaultModelSpecification> specifications = SpecificationReader.readJsonCollection(
+                new ByteArrayInputStream(collection.toString().getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, specifications.size());
+        assertEquals("0.4.0", specifications.get(0).getFormatVersion());
+        assertEquals("0.3.1", specifications.get(1).getFormatVersion());
+    }
+
+    @Test
+    public void testTokenizer() throws IOException {
+        Map<?, ?> map = (Map<?, ?>) new JsonReader(new StringReader(
+                "{\"s\": \"a\\\"b\\\\c\\n\\u00e4\", \"i\": -12, \"l\": 12345678901, \"b\": 123456789012345678901234,"
+                        + " \"d\": 1.5e2, \"t\": true, \"f\": false, \"n\": null, \"e\": [], \"o\": {}}")).readValue();
+        assertEquals("a\"b\\c\nä", map.get("s"));
+        assertEquals(-12, map.get("i"));
+        assertEquals(12345678901L, map.get("l"));
+        assertEquals(new BigInteger("123456789012345678901234"), map.get("b"));
+        assertEquals(150.0, map.get("d"));
+        assertEquals(true, map.get("t"));
+        assertEquals(false, map.get("f"));
+        assertNull(map.get("n"));
+        assertTrue(map.containsKey("n"));
+        assertEquals(Arrays.asList(), map.get("e"));
+        assertTrue(((Map<?, ?>) map.get("o")).isEmpty());
+        StringWriter writer = new StringWriter();
+        new JsonWriter(writer, null).write(map);
+        assertEquals(map, new JsonReader(new StringReader(writer.toString())).readValue());
+    }
+
+    @Test
+    public void testInvalidDocuments() {
+        for (String json : Arrays.asList("{\"a\" 1}", "{\"a\": 1,}", "[1 2]", "[1", "\"unterminated", "tru", "{1: 2}")) {
+            try {
+                new JsonReader(new StringReader(json)).readValue();
+                new JsonReader(new StringReader(json)).skipValue();
+                throw new AssertionError("Expected parse error for " + json);
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("at character"));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testTrailingContent() throws IOException {
+        SpecificationReader.readJson(new StringReader("{} {}"), new DefaultModelSpecification());
+    }
+
+    @Test
+    public void testNoSpecification() throws IOException {
+        assertFalse(SpecificationReader.readJson(new StringReader("[]"), new DefaultModelSpecification()));
+        assertFalse(SpecificationReader.readJson(new StringReader("{\"name\": \"x\"}"), new DefaultModelSpecification()));
+    }
+
+    @Test
+    public void testNonStringAuthorFields() throws IOException {
+        String json = toJson("/example.0.2.0-csbdeep.model.yaml");
+        String name = "\"name\": \"authors\"";
+        assertTrue(json.contains(name));
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.readJson(new StringReader(json.replace(name, "\"name\": 123, \"email\": true")), specification));
+        assertEquals("123", specification.getAuthors().get(0).getName());
+        assertEquals("true", specification.getAuthors().get(0).getEmail());
+    }
+
+    private String toJson(String resource) throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(resource(resource), specification));
+        StringWriter writer = new StringWriter();
+        SpecificationWriter.writeJson(specification, writer);
+        return writer.toString();
+    }
+
+    private void compareWithYaml(String resource) throws IOException {
+        DefaultModelSpecification yamlSpec = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(resource(resource), yamlSpec));
+        File json = folder.newFile();
+        SpecificationWriter.writeJson(yamlSpec, json.toPath());
+        DefaultModelSpecification jsonSpec = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.readJson(json.toPath(), jsonSpec));
+        assertEquals(resource, dump(yamlSpec), dump(jsonSpec));
+    }
+}
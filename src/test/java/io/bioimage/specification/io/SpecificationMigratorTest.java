@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.InputNodeSpecification;
+import io.bioimage.specification.transformation.ZeroMeanUnitVarianceTransformation;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationMigratorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final static List<String> legacyExamples = Arrays.asList("/example.0.1.0.model.yaml",
+            "/example.0.2.0-csbdeep.model.yaml", "/example.0.3.1.model.yaml", "/example.model.yaml");
+
+    @Test
+    public void testMigrateAll() throws Exception {
+        File root = folder.getRoot();
+        for (String resource : legacyExamples) {
+            File directory = new File(root, "legacy" + resource.replace(".", "_"));
+            FileUtils.copyFile(new File(getClass().getResource(resource).getPath()), new File(directory, "rdf.yaml"));
+        }
+        File current = new File(root, "current/example.0.4.0.model.yaml");
+        FileUtils.copyFile(new File(getClass().getResource("/example.0.4.0.model.yaml").getPath()), current);
+        FileTime currentTime = FileTime.fromMillis(1000);
+        Files.setLastModifiedTime(current.toPath(), currentTime);
+        File broken = new File(root, "broken/rdf.yaml");
+        FileUtils.writeStringToFile(broken, "format_version: 9.9.9\nname: x\n", StandardCharsets.UTF_8);
+
+        SpecificationMigrator.Report report = SpecificationMigrator.migrateAll(root.toPath());
+        assertEquals(report.toString(), legacyExamples.size(), report.getMigrated().size());
+        assertEquals(Arrays.asList(current.toPath()), report.getCurrent());
+        assertEquals(1, report.getFailed().size());
+        assertTrue(report.getFailed().containsKey(broken.toPath()));
+        assertEquals(currentTime, Files.getLastModifiedTime(current.toPath()));
+
+        for (Path path : report.getMigrated()) {
+            DefaultModelSpecification specification = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.read(path, specification));
+            assertEquals("0.4.0", specification.getFormatVersion());
+            assertNotNull(specification.getTimestamp());
+            assertFalse(specification.getTestInputs().contains(null));
+            assertEquals("model", specification.getType());
+        }
+        DefaultModelSpecification csbdeep = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(new File(root, "legacy/example_0_2_0-csbdeep_model_yaml/rdf.yaml"), csbdeep));
+        assertEquals("./variables/variables", csbdeep.getWeights().values().iterator().next().getSource());
+        assertEquals(0, SpecificationMigrator.migrateAll(root.toPath()).getMigrated().size());
+    }
+
+    @Test
+    public void testLegacyPrediction() throws IOException {
+        DefaultModelSpecification legacy = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(new File(getClass().getResource("/example.0.2.0-csbdeep.model.yaml").getPath()), legacy));
+        assertTrue(SpecificationMigrator.migrate(legacy));
+        assertFalse(SpecificationMigrator.migrate(legacy));
+        File file = folder.newFile();
+        SpecificationWriter.write(legacy, file.toPath());
+        DefaultModelSpecification migrated = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(file, migrated));
+        InputNodeSpecification input = migrated.getInputs().get(0);
+        ZeroMeanUnitVarianceTransformation preprocessing = (ZeroMeanUnitVarianceTransformation) input.getPreprocessing().get(0);
+        ZeroMeanUnitVarianceTransformation legacyPreprocessing = (ZeroMeanUnitVarianceTransformation) legacy.getInputs().get(0).getPreprocessing().get(0);
+        assertEquals(legacyPreprocessing.getMean().doubleValue(), preprocessing.getMean().doubleValue(), 0);
+        assertEquals(legacyPreprocessing.getStd().doubleValue(), preprocessing.getStd().doubleValue(), 0);
+        assertEquals(legacy.getAuthors().get(0).getName(), migrated.getAuthors().get(0).getName());
+        assertEquals(Collections.singletonList("testinput.tif"), migrated.getTestInputs());
+        assertEquals(legacy.getConfig(), migrated.getConfig());
+    }
+}
@@ -0,0 +1,89 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Compares throughput and allocation of the tree based reader
+ * ({@link SpecificationReader#read(InputStream, DefaultModelSpecification)}) and the event based reader
+ * ({@link SpecificationReader#readStreaming(InputStream, DefaultModelSpecification)}) for the example resources.
+ * Run the main method, this is not part of the test suite.
+ */
+public class SpecificationReaderBenchmark {
+
+    private interface ReadMethod {
+        boolean read(InputStream stream, DefaultModelSpecification specification) throws IOException;
+    }
+
+    private static final String[] resources = {
+            "/example.0.1.0.model.yaml",
+            "/example.0.2.0-csbdeep.model.yaml",
+            "/example.0.3.1.model.yaml",
+            "/example.0.4.0.model.yaml"
+    };
+
+    public static void main(String... args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        System.out.printf("%-36s %-7s %12s %14s%n", "resource", "reader", "reads/s", "bytes/read");
+        for (String resource : resources) {
+            byte[] content = Files.readAllBytes(Paths.get(SpecificationReaderBenchmark.class.getResource(resource).toURI()));
+            run(resource, "tree", content, SpecificationReader::read, iterations);
+            run(resource, "events", content, SpecificationReader::readStreaming, iterations);
+        }
+    }
+
+    private static void run(String resource, String name, byte[] content, ReadMethod method, int iterations) throws IOException {
+        // warm up
+        for (int i = 0; i < iterations; i++) {
+            method.read(new ByteArrayInputStream(content), new DefaultModelSpecification());
+        }
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            method.read(new ByteArrayInputStream(content), new DefaultModelSpecification());
+        }
+        long time = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        System.out.printf("%-36s %-7s %12.0f %14d%n", resource, name,
+                iterations / (time / 1e9), allocated / iterations);
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationReaderReadAllTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReadAll() throws Exception {
+        File root = folder.newFolder("zoo");
+        File example = new File(getClass().getResource("/example.0.4.0.model.yaml").getPath());
+        for (int i = 0; i < 20; i++) {
+            FileUtils.copyFile(example, new File(root, "model" + i + "/rdf.yaml"));
+        }
+        FileUtils.writeStringToFile(new File(root, "broken/rdf.yaml"), "name: [unclosed", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(root, "unknown/rdf.yaml"), "name: modelname\n", StandardCharsets.UTF_8);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(new File(root, "packaged.zip")))) {
+            out.putNextEntry(new ZipEntry("rdf.yaml"));
+            out.write(FileUtils.readFileToByteArray(example));
+            out.closeEntry();
+        }
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(new File(root, "model0/weights.zip")))) {
+            out.putNextEntry(new ZipEntry("variables.data"));
+            out.closeEntry();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<SpecificationReadResult> results;
+        try {
+            results = SpecificationReader.readAll(root.toPath(), executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(23, results.size());
+        int failed = 0;
+        for (SpecificationReadResult result : results) {
+            if (result.isSuccess()) {
+                assertNotNull(result.getSpecification());
+                assertEquals("0.4.0", result.getSpecification().getFormatVersion());
+            } else {
+                assertNull(result.getSpecification());
+                assertNotNull(result.getError());
+                assertFalse(result.getPath().toString().endsWith(".zip"));
+                failed++;
+            }
+        }
+        assertEquals(2, failed);
+    }
+
+    @Test
+    public void testEmptyTree() throws Exception {
+        assertTrue(SpecificationReader.readAll(folder.newFolder().toPath()).isEmpty());
+    }
+}
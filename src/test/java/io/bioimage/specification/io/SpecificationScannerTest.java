@@ -0,0 +1,95 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.InputNodeSpecification;
+import io.bioimage.specification.TransformationSpecification;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.canonical;
+import static io.bioimage.specification.io.SpecificationTestUtil.resource;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationScannerTest {
+
+    @Test
+    public void testScanMatchesFreshReads() throws IOException {
+        SpecificationScanner scanner = new SpecificationScanner();
+        for (String resource : Arrays.asList("/example.0.4.0.model.yaml", "/example.0.3.1.model.yaml",
+                "/example.0.2.0-csbdeep.model.yaml", "/example.model.yaml", "/example.0.4.0.model.yaml")) {
+            Path path = resource(resource).toPath();
+            DefaultModelSpecification expected = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.readStreaming(path, expected));
+            assertEquals(resource, canonical(expected), canonical(scanner.read(path)));
+        }
+    }
+
+    @Test
+    public void testNodesAndTransformationsAreReused() throws IOException {
+        SpecificationScanner scanner = new SpecificationScanner();
+        Path path = resource("/example.0.4.0.model.yaml").toPath();
+        InputNodeSpecification input = scanner.read(path).getInputs().get(0);
+        TransformationSpecification preprocessing = input.getPreprocessing().get(0);
+        DefaultModelSpecification specification = scanner.read(path);
+        assertSame(input, specification.getInputs().get(0));
+        assertSame(preprocessing, specification.getInputs().get(0).getPreprocessing().get(0));
+        assertEquals(1, specification.getAuthors().size());
+    }
+
+    @Test
+    public void testSelectedKeys() throws IOException {
+        SpecificationScanner scanner = new SpecificationScanner(SpecificationCodec.getDefault(), "name"::equals);
+        DefaultModelSpecification specification = scanner.read(resource("/example.0.4.0.model.yaml").toPath());
+        assertEquals("modelname", specification.getName());
+        assertEquals("0.4.0", specification.getFormatVersion());
+        assertTrue(specification.getInputs().isEmpty());
+        assertNull(specification.getDescription());
+    }
+
+    @Test
+    public void testReset() throws IOException {
+        String empty = canonical(new DefaultModelSpecification());
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(resource("/example.0.4.0.model.yaml").toPath(), specification));
+        specification.reset();
+        assertEquals(empty, canonical(specification));
+
+        LazyModelSpecification lazy = LazyModelSpecification.read(resource("/example.0.4.0.model.yaml").toPath());
+        lazy.reset();
+        assertEquals(empty, canonical(lazy));
+    }
+}
@@ -0,0 +1,216 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.bioimage.specification.io.SpecificationTestUtil.dump;
+import static io.bioimage.specification.io.SpecificationTestUtil.read;
+import static io.bioimage.specification.io.SpecificationTestUtil.resource;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationSnapshotTest {
+
+    private static final String[] resources = {
+            "/example.0.1.0.model.yaml",
+            "/example.0.2.0-csbdeep.model.yaml",
+            "/example.0.3.1.model.yaml",
+            "/example.0.4.0.model.yaml",
+            "/example.model.yaml"
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (String resource : resources) {
+            DefaultModelSpecification specification = read(resource);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            SpecificationSnapshot.write(specification, out);
+            DefaultModelSpecification restored = new DefaultModelSpecification();
+            assertTrue(SpecificationSnapshot.read(new ByteArrayInputStream(out.toByteArray()), restored));
+            assertEquals(resource, dump(specification), dump(restored));
+        }
+    }
+
+    @Test
+    public void testStaleEntriesAreSkipped() throws IOException {
+        Map<Path, SpecificationSnapshot.Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < resources.length; i++) {
+            File source = new File(folder.getRoot(), "model" + i + "/rdf.yaml");
+            FileUtils.copyFile(resource(resources[i]), source);
+            entries.put(source.toPath(), SpecificationSnapshot.Entry.read(source.toPath(), false));
+        }
+        Path snapshot = folder.getRoot().toPath().resolve("catalog.snapshot");
+        SpecificationSnapshot.write(entries, snapshot);
+        assertEquals(resources.length, SpecificationSnapshot.read(snapshot).size());
+
+        Path changed = folder.getRoot().toPath().resolve("model1/rdf.yaml");
+        FileUtils.writeStringToFile(changed.toFile(), "\n", StandardCharsets.UTF_8, true);
+        Map<Path, DefaultModelSpecification> restored = SpecificationSnapshot.read(snapshot);
+        assertEquals(resources.length - 1, restored.size());
+        assertFalse(restored.containsKey(changed));
+        Path unchanged = folder.getRoot().toPath().resolve("model0/rdf.yaml");
+        assertEquals(dump((DefaultModelSpecification) entries.get(unchanged).getSpecification()), dump(restored.get(unchanged)));
+    }
+
+    @Test
+    public void testChangeBetweenReadAndWrite() throws IOException {
+        Path source = folder.newFile("rdf.yaml").toPath();
+        FileUtils.copyFile(resource("/example.0.4.0.model.yaml"), source.toFile());
+        Map<Path, SpecificationSnapshot.Entry> entries = new LinkedHashMap<>();
+        entries.put(source, SpecificationSnapshot.Entry.read(source, false));
+
+        // the specification in the entry no longer reflects its source
+        FileUtils.writeStringToFile(source.toFile(), "\n", StandardCharsets.UTF_8, true);
+        Path snapshot = folder.getRoot().toPath().resolve("stale.snapshot");
+        SpecificationSnapshot.write(entries, snapshot);
+        assertTrue(SpecificationSnapshot.read(snapshot).isEmpty());
+    }
+
+    @Test
+    public void testContentHash() throws IOException {
+        Path source = folder.newFile("rdf.yaml").toPath();
+        FileUtils.copyFile(resource("/example.0.4.0.model.yaml"), source.toFile());
+        Map<Path, SpecificationSnapshot.Entry> entries = new LinkedHashMap<>();
+        entries.put(source, SpecificationSnapshot.Entry.read(source, true));
+        Path snapshot = folder.getRoot().toPath().resolve("hashed.snapshot");
+        SpecificationSnapshot.write(entries, snapshot);
+        assertEquals(1, SpecificationSnapshot.read(snapshot).size());
+
+        // same size and modification time, different content
+        FileTime lastModified = Files.getLastModifiedTime(source);
+        byte[] content = Files.readAllBytes(source);
+        content[content.length - 2] = (byte) (content[content.length - 2] == 'a' ? 'b' : 'a');
+        Files.write(source, content);
+        Files.setLastModifiedTime(source, lastModified);
+        assertTrue(SpecificationSnapshot.read(snapshot).isEmpty());
+    }
+
+    @Test
+    public void testFailedWriteKeepsSnapshot() throws IOException {
+        Path source = folder.newFile("rdf.yaml").toPath();
+        FileUtils.copyFile(resource("/example.0.4.0.model.yaml"), source.toFile());
+        Map<Path, SpecificationSnapshot.Entry> entries = new LinkedHashMap<>();
+        entries.put(source, SpecificationSnapshot.Entry.read(source, false));
+        Path snapshot = folder.getRoot().toPath().resolve("catalog.snapshot");
+        SpecificationSnapshot.write(entries, snapshot);
+        byte[] previous = Files.readAllBytes(snapshot);
+
+        DefaultModelSpecification unsupported = new DefaultModelSpecification();
+        unsupported.setFormatVersion("0.0.1");
+        entries.put(folder.getRoot().toPath().resolve("unsupported.yaml"), new SpecificationSnapshot.Entry(SpecificationSnapshot.SourceStamp.of(source), unsupported));
+        try {
+            SpecificationSnapshot.write(entries, snapshot);
+            throw new AssertionError("Expected the unsupported specification to fail");
+        } catch (IOException ignored) {
+        }
+        assertArrayEquals(previous, Files.readAllBytes(snapshot));
+        assertEquals(1, SpecificationSnapshot.read(snapshot).size());
+    }
+
+    @Test
+    public void testTruncatedSnapshot() throws IOException {
+        Map<Path, SpecificationSnapshot.Entry> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 2; i++) {
+            File source = new File(folder.getRoot(), "model" + i + "/rdf.yaml");
+            FileUtils.copyFile(resource("/example.0.4.0.model.yaml"), source);
+            entries.put(source.toPath(), SpecificationSnapshot.Entry.read(source.toPath(), false));
+        }
+        Path snapshot = folder.getRoot().toPath().resolve("catalog.snapshot");
+        SpecificationSnapshot.write(entries, snapshot);
+        byte[] content = Files.readAllBytes(snapshot);
+        Path truncated = folder.getRoot().toPath().resolve("truncated.snapshot");
+        int previousSize = 0;
+        for (int length = 0; length < content.length; length++) {
+            Files.write(truncated, Arrays.copyOf(content, length));
+            int size = SpecificationSnapshot.read(truncated).size();
+            assertTrue(size < entries.size());
+            assertTrue(size >= previousSize);
+            previousSize = size;
+        }
+        assertEquals(entries.size() - 1, previousSize);
+    }
+
+    @Test
+    public void testCorruptLength() throws IOException {
+        Path source = folder.newFile("rdf.yaml").toPath();
+        FileUtils.copyFile(resource("/example.0.4.0.model.yaml"), source.toFile());
+        Map<Path, SpecificationSnapshot.Entry> entries = new LinkedHashMap<>();
+        entries.put(source, SpecificationSnapshot.Entry.read(source, false));
+        Path snapshot = folder.getRoot().toPath().resolve("catalog.snapshot");
+        SpecificationSnapshot.write(entries, snapshot);
+        byte[] content = Files.readAllBytes(snapshot);
+        int pathLength = source.toString().getBytes(StandardCharsets.UTF_8).length;
+        // magic, version and count, the path with its length, size, modification time and hash length
+        int payloadLength = 12 + (pathLength < 128 ? 1 : 2) + pathLength + 17;
+        assertEquals(content.length - payloadLength - 4, ByteBuffer.wrap(content).getInt(payloadLength));
+        for (int length : new int[]{-1, Integer.MAX_VALUE}) {
+            ByteBuffer.wrap(content).putInt(payloadLength, length);
+            Files.write(snapshot, content);
+            assertTrue(SpecificationSnapshot.read(snapshot).isEmpty());
+        }
+        byte[] single = Arrays.copyOfRange(content, payloadLength - 8, content.length);
+        ByteBuffer.wrap(single).putInt(0, 0x42494f53).putInt(4, 1).putInt(8, -1);
+        try {
+            SpecificationSnapshot.read(new ByteArrayInputStream(single), new DefaultModelSpecification());
+            throw new AssertionError("Expected the negative length to be rejected");
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Test
+    public void testMissingOrForeignSnapshot() throws IOException {
+        assertTrue(SpecificationSnapshot.read(folder.getRoot().toPath().resolve("missing")).isEmpty());
+        Path foreign = folder.newFile("foreign").toPath();
+        Files.write(foreign, "format_version: 0.4.0".getBytes(StandardCharsets.UTF_8));
+        assertTrue(SpecificationSnapshot.read(foreign).isEmpty());
+    }
+}
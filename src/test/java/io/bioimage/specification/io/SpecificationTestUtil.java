@@ -0,0 +1,86 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import io.bioimage.specification.ModelSpecification;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads the example specifications and serializes specifications for comparisons in tests.
+ */
+public final class SpecificationTestUtil {
+
+    private SpecificationTestUtil() {
+    }
+
+    /**
+     * @return the file of a test resource, e.g. {@code "/example.0.4.0.model.yaml"}
+     */
+    public static File resource(String resource) {
+        return new File(SpecificationTestUtil.class.getResource(resource).getPath());
+    }
+
+    /**
+     * Reads a test resource, failing the test if its format version is not supported.
+     */
+    public static DefaultModelSpecification read(String resource) throws IOException {
+        return read(resource(resource).toPath());
+    }
+
+    public static DefaultModelSpecification read(Path path) throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(path.toString(), SpecificationReader.read(path, specification));
+        return specification;
+    }
+
+    /**
+     * @return the YAML which {@link SpecificationWriter} writes for the specification
+     */
+    public static String dump(ModelSpecification specification) {
+        StringWriter writer = new StringWriter();
+        SpecificationCodec.getDefault().write(specification, writer);
+        return writer.toString();
+    }
+
+    /**
+     * @return the canonical JSON form of the specification, see {@link SpecificationWriter#writeCanonical}
+     */
+    public static String canonical(ModelSpecification specification) throws IOException {
+        StringWriter writer = new StringWriter();
+        SpecificationWriter.writeCanonical(specification, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,144 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpecificationWriteBatchTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReplaceExisting() throws IOException {
+        for (Durability durability : Durability.values()) {
+            File directory = folder.newFolder();
+            File file = new File(directory, "rdf.yaml");
+            FileUtils.writeStringToFile(file, "old", StandardCharsets.UTF_8);
+            DefaultModelSpecification specification = read();
+            SpecificationWriter.write(specification, file.toPath(), durability);
+            DefaultModelSpecification result = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.read(file, result));
+            assertEquals(specification.getName(), result.getName());
+            assertEquals(1, directory.list().length);
+        }
+    }
+
+    @Test
+    public void testGroupCommit() throws IOException {
+        File directory = folder.newFolder();
+        DefaultModelSpecification specification = read();
+        Path[] targets = new Path[5];
+        try (SpecificationWriteBatch batch = new SpecificationWriteBatch(Durability.GROUP_COMMIT)) {
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = new File(directory, i + ".yaml").toPath();
+                FileUtils.writeStringToFile(targets[i].toFile(), "old", StandardCharsets.UTF_8);
+                batch.write(specification, targets[i]);
+            }
+            for (Path target : targets) {
+                assertEquals("old", FileUtils.readFileToString(target.toFile(), StandardCharsets.UTF_8));
+            }
+            batch.commit();
+        }
+        for (Path target : targets) {
+            DefaultModelSpecification result = new DefaultModelSpecification();
+            assertTrue(SpecificationReader.read(target, result));
+            assertEquals(specification.getName(), result.getName());
+        }
+        assertEquals(targets.length, directory.list().length);
+    }
+
+    @Test
+    public void testCloseWithoutCommit() throws IOException {
+        File directory = folder.newFolder();
+        File file = new File(directory, "rdf.yaml");
+        FileUtils.writeStringToFile(file, "old", StandardCharsets.UTF_8);
+        try (SpecificationWriteBatch batch = new SpecificationWriteBatch(Durability.GROUP_COMMIT)) {
+            batch.write(read(), file.toPath());
+            assertEquals(2, directory.list().length);
+        }
+        assertEquals("old", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        assertEquals(1, directory.list().length);
+    }
+
+    @Test
+    public void testWriteIfChanged() throws IOException {
+        File directory = folder.newFolder();
+        DefaultModelSpecification specification = read();
+        Path unchanged = new File(directory, "unchanged.yaml").toPath();
+        SpecificationWriter.write(specification, unchanged);
+        FileTime written = FileTime.fromMillis(1000);
+        Files.setLastModifiedTime(unchanged, written);
+        Path missing = new File(directory, "missing.yaml").toPath();
+        Path modified = new File(directory, "modified.yaml").toPath();
+        SpecificationWriter.write(specification, modified);
+        byte[] content = Files.readAllBytes(modified);
+        content[content.length - 2]++;
+        Files.write(modified, content);
+
+        try (SpecificationWriteBatch batch = new SpecificationWriteBatch(Durability.GROUP_COMMIT)) {
+            assertFalse(batch.writeIfChanged(specification, unchanged));
+            assertTrue(batch.writeIfChanged(specification, missing));
+            assertTrue(batch.writeIfChanged(specification, modified));
+            // targets are only replaced by the commit
+            assertTrue(batch.getChangedFiles().isEmpty());
+            batch.commit();
+            assertEquals(Arrays.asList(missing, modified), batch.getChangedFiles());
+            assertEquals(Collections.singletonList(unchanged), batch.getUnchangedFiles());
+        }
+        assertEquals(written, Files.getLastModifiedTime(unchanged));
+        assertArrayEquals(Files.readAllBytes(unchanged), Files.readAllBytes(missing));
+        assertArrayEquals(Files.readAllBytes(unchanged), Files.readAllBytes(modified));
+        assertFalse(SpecificationWriter.writeIfChanged(specification, modified));
+    }
+
+    private DefaultModelSpecification read() throws IOException {
+        DefaultModelSpecification specification = new DefaultModelSpecification();
+        assertTrue(SpecificationReader.read(new File(getClass().getResource("/example.0.4.0.model.yaml").getPath()), specification));
+        return specification;
+    }
+}
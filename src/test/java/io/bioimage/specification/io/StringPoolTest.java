@@ -0,0 +1,100 @@
+/*-
+ * #%L
+ * Java implementation of the bioimage.io model specification.
+ * %%
+ * Copyright (C) 2020 - 2021 Center for Systems Biology Dresden
+ * %%
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * 
+ * 1. Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ * #L%
+ */
+package io.bioimage.specification.io;
+
+import io.bioimage.specification.DefaultModelSpecification;
+import org.junit.Test;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StringPoolTest {
+
+    @Test
+    public void testIntern() {
+        StringPool pool = new StringPool(4, 2);
+        String first = new String("bcyx");
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(new String("bcyx")));
+        assertEquals(1, pool.getHits());
+        assertEquals(StringPool.sizeOf(first), pool.getSavedBytes());
+
+        String tooLong = new String("bcyxz");
+        assertSame(tooLong, pool.intern(tooLong));
+        assertNotSame(tooLong, pool.intern(new String("bcyxz")));
+        assertNull(pool.intern(null));
+
+        pool.intern("a");
+        String full = new String("b");
+        assertSame(full, pool.intern(full));
+        assertNotSame(full, pool.intern(new String("b")));
+        assertEquals(2, pool.size());
+
+        pool.clear();
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getSavedBytes());
+    }
+
+    @Test
+    public void testReadersSharePooledStrings() throws IOException {
+        StringPool pool = new StringPool();
+        SpecificationCodec codec = new SpecificationCodec(new LoaderOptions(), new DumperOptions(), pool);
+        assertSame(pool, codec.getStringPool());
+
+        DefaultModelSpecification tree = new DefaultModelSpecification();
+        try (InputStream stream = getClass().getResourceAsStream("/example.0.4.0.model.yaml")) {
+            assertTrue(codec.read(stream, tree));
+        }
+        DefaultModelSpecification streamed = new DefaultModelSpecification();
+        try (InputStream stream = getClass().getResourceAsStream("/example.0.4.0.model.yaml")) {
+            assertTrue(codec.readStreaming(stream, streamed));
+        }
+        assertSame(tree.getInputs().get(0).getAxes(), streamed.getInputs().get(0).getAxes());
+        assertSame(tree.getInputs().get(0).getDataType(), streamed.getInputs().get(0).getDataType());
+        assertSame(tree.getLicense(), streamed.getLicense());
+        assertSame(tree.getAuthors().get(0).getName(), streamed.getAuthors().get(0).getName());
+        assertTrue(pool.getHits() > 0);
+        assertTrue(pool.getSavedBytes() > 0);
+
+        DefaultModelSpecification unpooled = new DefaultModelSpecification();
+        try (InputStream stream = getClass().getResourceAsStream("/example.0.4.0.model.yaml")) {
+            assertTrue(SpecificationCodec.getDefault().read(stream, unpooled));
+        }
+        assertNull(SpecificationCodec.getDefault().getStringPool());
+        assertNotSame(tree.getLicense(), unpooled.getLicense());
+    }
+}